@@ -0,0 +1,9 @@
+// 图片地址带上内容哈希，浏览器和 CDN 可以长期缓存
+const withVersion = (url, hash) => (hash ? `${url}?v=${hash}` : url)
+
+// 电影封面地址，列表接口不再返回 base64 封面
+export const movieCoverUrl = (movie) => withVersion(`/api/movies/${movie.id}/cover`, movie.coverHash)
+
+// 轮播图图片地址
+export const carouselImageUrl = (carousel) =>
+  withVersion(`/api/carousels/${carousel.id}/image`, carousel.imageHash)
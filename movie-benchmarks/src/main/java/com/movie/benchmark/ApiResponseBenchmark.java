@@ -0,0 +1,56 @@
+package com.movie.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.common.ApiResponse;
+import com.movie.dto.MovieSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 接口统一返回格式的 JSON 序列化，ObjectMapper 配置与 Spring MVC 默认一致
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseBenchmark {
+
+    // 列表中的电影数
+    @Param({"20", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<MovieSummary>> movies;
+    private ApiResponse<Map<String, Object>> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<MovieSummary> summaries = SyntheticData.summaries(size);
+        movies = ApiResponse.success(summaries, "获取成功");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("content", summaries);
+        data.put("totalElements", (long) size * 10);
+        data.put("totalPages", 10);
+        data.put("size", size);
+        data.put("number", 0);
+        page = ApiResponse.success(data, "获取成功");
+    }
+
+    @Benchmark
+    public byte[] serializeMovieList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movies);
+    }
+
+    @Benchmark
+    public byte[] serializeMoviePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
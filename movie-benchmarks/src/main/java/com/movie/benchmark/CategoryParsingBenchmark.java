@@ -0,0 +1,39 @@
+package com.movie.benchmark;
+
+import com.movie.entity.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 逗号分隔分类ID的解析，启动建索引和读取旧数据时对每部电影执行一次
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryParsingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int movies;
+
+    private String[] categories;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        categories = new String[movies];
+        for (int i = 0; i < movies; i++) {
+            categories[i] = SyntheticData.categories(random);
+        }
+    }
+
+    @Benchmark
+    public void parseAll(Blackhole blackhole) {
+        for (String value : categories) {
+            blackhole.consume(Movie.parseCategoryIds(value));
+        }
+    }
+}
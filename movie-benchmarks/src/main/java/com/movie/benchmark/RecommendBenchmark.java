@@ -0,0 +1,66 @@
+package com.movie.benchmark;
+
+import com.movie.dto.MovieIndexEntry;
+import com.movie.entity.MovieInteraction;
+import com.movie.repository.MovieInteractionRepository;
+import com.movie.repository.MovieRepository;
+import com.movie.service.RecommendService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 推荐接口的筛选和打分：有互动记录的用户走倒排索引，新用户走全量筛选
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecommendBenchmark {
+
+    private static final long ACTIVE_USER = 1L;
+    private static final long NEW_USER = 2L;
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    private int movies;
+
+    // 活跃用户的互动记录数
+    @Param({"50"})
+    private int history;
+
+    private RecommendService recommendService;
+
+    private final Map<String, Object> filters = Map.of("regionId", 3, "maxPrice", 20);
+
+    @Setup
+    public void setUp() {
+        List<MovieIndexEntry> entries = SyntheticData.indexEntries(movies);
+        List<MovieInteraction> interactions = SyntheticData.interactions(ACTIVE_USER, history, movies);
+
+        MovieRepository movieRepository = Stubs.repository(MovieRepository.class, Map.of(
+                "findAllIndexEntries", args -> entries));
+        MovieInteractionRepository interactionRepository = Stubs.repository(MovieInteractionRepository.class, Map.of(
+                "findByUserId", args -> ((Long) args[0]) == ACTIVE_USER ? interactions : List.of()));
+
+        recommendService = new RecommendService(movieRepository, interactionRepository);
+        recommendService.rebuild();
+    }
+
+    @Benchmark
+    public List<Long> recommendByPreference() {
+        return recommendService.recommend(ACTIVE_USER, null, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> recommendByPreferenceFiltered() {
+        return recommendService.recommend(ACTIVE_USER, filters, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> recommendColdStartFiltered() {
+        return recommendService.recommend(NEW_USER, filters, LIMIT);
+    }
+}
@@ -0,0 +1,55 @@
+package com.movie.benchmark;
+
+import com.movie.MovieApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 应用冷启动耗时：每个 fork 是一个新 JVM，只启动一次。
+// update 为接入 Flyway 之前的方式（Hibernate 检查并修改表结构），validate 为 Flyway 校验迁移后 Hibernate 只做校验。
+// 需要一个已由 Flyway 迁移好的 MySQL 库，通过 -p url=... 指定
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"update", "validate"})
+    private String ddlAuto;
+
+    @Param({"jdbc:mysql://localhost:3306/movie_system?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true"})
+    private String url;
+
+    @Param({"root"})
+    private String username;
+
+    @Param({"12345678"})
+    private String password;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = SpringApplication.run(MovieApplication.class,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.flyway.enabled=" + "validate".equals(ddlAuto),
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--media.storage-path=" + System.getProperty("java.io.tmpdir") + "/movie-benchmark-media");
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.movie.benchmark;
+
+import com.movie.dto.LikeCount;
+import com.movie.entity.DailySalesRollup;
+import com.movie.repository.DailySalesRollupRepository;
+import com.movie.repository.MovieRepository;
+import com.movie.repository.OrderRepository;
+import com.movie.service.LikeLeaderboardService;
+import com.movie.service.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 统计接口中在内存完成的部分：销售额按周/月合并、点赞排行的读取和增量调整
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Sales {
+
+        // 日汇总的天数
+        @Param({"365", "3650"})
+        private int days;
+
+        private final LocalDate to = LocalDate.of(2024, 12, 31);
+        private LocalDate from;
+        private SalesRollupService salesRollupService;
+
+        @Setup
+        public void setUp() {
+            List<DailySalesRollup> rows = SyntheticData.dailySales(to, days);
+            from = to.minusDays(days - 1);
+            DailySalesRollupRepository rollupRepository = Stubs.repository(DailySalesRollupRepository.class, Map.of(
+                    "findBySaleDateBetweenOrderBySaleDate", args -> rows));
+            salesRollupService = new SalesRollupService(rollupRepository,
+                    Stubs.repository(OrderRepository.class, Map.of()));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Leaderboard {
+
+        @Param({"10000", "100000", "1000000"})
+        private int movies;
+
+        private LikeLeaderboardService likeLeaderboardService;
+        private long next;
+
+        @Setup
+        public void setUp() {
+            List<LikeCount> counts = SyntheticData.likeCounts(movies);
+            MovieRepository movieRepository = Stubs.repository(MovieRepository.class, Map.of(
+                    "findLikeCounts", args -> counts));
+            likeLeaderboardService = new LikeLeaderboardService(movieRepository);
+            likeLeaderboardService.rebuild();
+        }
+
+        private long nextMovieId() {
+            next = next % movies + 1;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> salesByWeek(Sales sales) {
+        return sales.salesRollupService.getSales(sales.from, sales.to, "week");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> salesByMonth(Sales sales) {
+        return sales.salesRollupService.getSales(sales.from, sales.to, "month");
+    }
+
+    @Benchmark
+    public List<LikeCount> likeLeaderboardTop(Leaderboard leaderboard) {
+        return leaderboard.likeLeaderboardService.top(10);
+    }
+
+    // 点赞后再取消，排行数据保持不变
+    @Benchmark
+    public void likeLeaderboardAdjust(Leaderboard leaderboard) {
+        long movieId = leaderboard.nextMovieId();
+        leaderboard.likeLeaderboardService.adjust(movieId, 1);
+        leaderboard.likeLeaderboardService.adjust(movieId, -1);
+    }
+}
@@ -0,0 +1,28 @@
+package com.movie.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+// 用动态代理替代 Spring Data 仓库，只实现被测方法需要的查询，数据全部来自内存
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+}
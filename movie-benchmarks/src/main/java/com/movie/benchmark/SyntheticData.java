@@ -0,0 +1,115 @@
+package com.movie.benchmark;
+
+import com.movie.dto.LikeCount;
+import com.movie.dto.MovieIndexEntry;
+import com.movie.dto.MovieSummary;
+import com.movie.entity.DailySalesRollup;
+import com.movie.entity.MovieInteraction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+// 固定随机种子生成的测试数据，同样的规模每次运行得到相同的数据
+final class SyntheticData {
+
+    static final int CATEGORIES = 20;
+    static final int REGIONS = 10;
+
+    private SyntheticData() {
+    }
+
+    // 每部电影 1~3 个分类，与 movies.categories 相同的逗号分隔格式
+    static String categories(Random random) {
+        int count = 1 + random.nextInt(3);
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            joiner.add(String.valueOf(1 + random.nextInt(CATEGORIES)));
+        }
+        return joiner.toString();
+    }
+
+    static List<MovieIndexEntry> indexEntries(int movies) {
+        Random random = new Random(42);
+        List<MovieIndexEntry> entries = new ArrayList<>(movies);
+        for (long id = 1; id <= movies; id++) {
+            entries.add(new MovieIndexEntry(
+                    id,
+                    categories(random),
+                    1L + random.nextInt(REGIONS),
+                    1980 + random.nextInt(45),
+                    random.nextInt(4) == 0 ? 0.0 : random.nextInt(50),
+                    Math.round(random.nextDouble() * 100) / 10.0
+            ));
+        }
+        return entries;
+    }
+
+    // 用户的互动记录，电影ID在 [1, movies] 内随机分布
+    static List<MovieInteraction> interactions(long userId, int count, int movies) {
+        Random random = new Random(userId);
+        List<MovieInteraction> interactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            interactions.add(MovieInteraction.builder()
+                    .id((long) i + 1)
+                    .userId(userId)
+                    .movieId(1L + random.nextInt(movies))
+                    .liked(random.nextBoolean())
+                    .playCount(random.nextInt(5))
+                    .rating(random.nextInt(3) == 0 ? 1 + random.nextInt(5) : null)
+                    .build());
+        }
+        return interactions;
+    }
+
+    static List<LikeCount> likeCounts(int movies) {
+        Random random = new Random(7);
+        List<LikeCount> counts = new ArrayList<>(movies);
+        for (long id = 1; id <= movies; id++) {
+            counts.add(new LikeCount(id, (long) random.nextInt(10_000)));
+        }
+        return counts;
+    }
+
+    // 截止到 to 的连续 days 天日汇总
+    static List<DailySalesRollup> dailySales(LocalDate to, int days) {
+        Random random = new Random(11);
+        List<DailySalesRollup> rows = new ArrayList<>(days);
+        for (LocalDate day = to.minusDays(days - 1); !day.isAfter(to); day = day.plusDays(1)) {
+            DailySalesRollup row = new DailySalesRollup();
+            row.setSaleDate(day);
+            row.setOrderCount((long) random.nextInt(500));
+            row.setAmount(random.nextInt(500) * 9.9);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static List<MovieSummary> summaries(int count) {
+        Random random = new Random(3);
+        List<MovieSummary> summaries = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            double rating = Math.round(random.nextDouble() * 100) / 10.0;
+            summaries.add(new MovieSummary(
+                    id,
+                    "电影 " + id,
+                    categories(random),
+                    1L + random.nextInt(REGIONS),
+                    1980 + random.nextInt(45),
+                    80 + random.nextInt(100),
+                    rating,
+                    rating,
+                    (long) random.nextInt(1000),
+                    random.nextBoolean(),
+                    9.9,
+                    "演员甲,演员乙,演员丙",
+                    "https://example.com/trailer/" + id,
+                    random.nextInt(100_000),
+                    null
+            ));
+        }
+        return summaries;
+    }
+}
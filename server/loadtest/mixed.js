@@ -0,0 +1,74 @@
+// 平台线程与虚拟线程模式的对比压测（k6），请求组合模拟前台：
+//   35% 条件筛选 /movies/search，15% 电影详情，20% 播放前的 /orders/check，
+//   20% 点赞评分 PUT /movie-interactions，10% 播放计数 POST /movies/{id}/play
+// 运行：k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 -e DURATION=2m loadtest/mixed.js
+// 两种模式各跑一次，对比输出中的 http_reqs（吞吐）和 http_req_duration 的 p(95)/p(99)
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+// 并发用户数应明显大于 Tomcat 默认的 200 个工作线程，才能体现两种模式的差异
+const VUS = parseInt(__ENV.VUS || '400', 10);
+const DURATION = __ENV.DURATION || '2m';
+// 压测使用的用户ID范围，互动和购买检查落在这些用户上
+const USER_BASE = parseInt(__ENV.USER_BASE || '100000', 10);
+const USERS = parseInt(__ENV.USERS || '10000', 10);
+
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+  scenarios: {
+    mixed: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: VUS },
+        { duration: DURATION, target: VUS },
+        { duration: '10s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// 压测前取一批电影ID
+export function setup() {
+  const res = http.get(`${BASE_URL}/movies/search?size=100&sort=playCount`);
+  const movies = res.json('data.content') || [];
+  if (movies.length === 0) {
+    throw new Error('没有电影数据，先导入电影再压测');
+  }
+  return { movieIds: movies.map((movie) => movie.id) };
+}
+
+function pick(items) {
+  return items[Math.floor(Math.random() * items.length)];
+}
+
+export default function (data) {
+  const movieId = pick(data.movieIds);
+  const userId = USER_BASE + Math.floor(Math.random() * USERS);
+  const roll = Math.random();
+  let res;
+  if (roll < 0.35) {
+    res = http.get(`${BASE_URL}/movies/search?size=12&sort=rating`, { tags: { name: 'search' } });
+  } else if (roll < 0.5) {
+    res = http.get(`${BASE_URL}/movies/${movieId}`, { tags: { name: 'movie' } });
+  } else if (roll < 0.7) {
+    res = http.get(`${BASE_URL}/orders/check?userId=${userId}&movieId=${movieId}`, { tags: { name: 'check' } });
+  } else if (roll < 0.9) {
+    const body = JSON.stringify({ liked: Math.random() < 0.5, rating: 1 + Math.floor(Math.random() * 5) });
+    res = http.put(`${BASE_URL}/movie-interactions/user/${userId}/movie/${movieId}`, body,
+      Object.assign({ tags: { name: 'interaction' } }, JSON_HEADERS));
+  } else {
+    res = http.post(`${BASE_URL}/movies/${movieId}/play?userId=${userId}`, null, { tags: { name: 'play' } });
+  }
+  check(res, {
+    'status 200': (r) => r.status === 200,
+    'code 200': (r) => r.json('code') === 200,
+  });
+}
@@ -0,0 +1,41 @@
+package com.movie.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// 游标分页使用的不透明游标，内容为“排序字段值|主键”
+public class Cursor {
+    private final String value;
+    private final Long id;
+
+    public Cursor(String value, Long id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public static String encode(Object value, Long id) {
+        String raw = value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("无效的游标");
+            }
+            return new Cursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的游标", e);
+        }
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
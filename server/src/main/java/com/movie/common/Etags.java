@@ -0,0 +1,19 @@
+package com.movie.common;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// 基于版本号的条件请求：浏览器每次都用 If-None-Match 校验，数据未变化时返回 304
+public final class Etags {
+
+    private Etags() {
+    }
+
+    // 返回 true 时已写入 304 响应，控制器直接返回 null
+    public static boolean notModified(ServletWebRequest request, String version) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return request.checkNotModified("\"" + version + "\"");
+    }
+}
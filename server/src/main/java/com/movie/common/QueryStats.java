@@ -0,0 +1,57 @@
+package com.movie.common;
+
+// 单个请求内执行的 SQL 条数、读取的行数和字节数，由 QueryGuardFilter 绑定到处理请求的线程
+public class QueryStats {
+
+    // 异步请求的统计保存在请求属性中，异步线程和 ASYNC 分派时从这里取回
+    public static final String REQUEST_ATTRIBUTE = QueryStats.class.getName();
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long bytes;
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void bind(QueryStats stats) {
+        CURRENT.set(stats);
+    }
+
+    // 不在请求内（启动、定时任务）时返回 null
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void addStatement() {
+        statements++;
+    }
+
+    public void addRow() {
+        rows++;
+    }
+
+    public void addBytes(long count) {
+        bytes += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
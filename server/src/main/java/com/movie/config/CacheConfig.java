@@ -0,0 +1,10 @@
+package com.movie.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// 开启 Spring Cache，缓存实现和容量见 application.yml 中的 spring.cache
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
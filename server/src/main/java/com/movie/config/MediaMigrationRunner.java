@@ -0,0 +1,73 @@
+package com.movie.config;
+
+import com.movie.dto.MediaRef;
+import com.movie.repository.CarouselRepository;
+import com.movie.repository.MovieRepository;
+import com.movie.service.MediaStorageService;
+import com.movie.service.ReferenceDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+// 启动时把仍以 base64 保存在数据库中的封面和轮播图转存到文件存储
+@Component
+public class MediaMigrationRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaMigrationRunner.class);
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CarouselRepository carouselRepository;
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Override
+    public void run(String... args) {
+        int movies = 0;
+        for (Long id : movieRepository.findIdsWithLegacyCover()) {
+            String cover = movieRepository.findCoverById(id).orElse(null);
+            MediaRef ref = migrate(cover, "movie " + id);
+            if (ref != null) {
+                movieRepository.updateCover(id, ref.getHash(), ref.getContentType());
+                movies++;
+            }
+        }
+
+        int carousels = 0;
+        for (Long id : carouselRepository.findIdsWithLegacyImage()) {
+            String image = carouselRepository.findImageById(id).orElse(null);
+            MediaRef ref = migrate(image, "carousel " + id);
+            if (ref != null) {
+                carouselRepository.updateImage(id, ref.getHash(), ref.getContentType());
+                carousels++;
+            }
+        }
+
+        if (carousels > 0) {
+            referenceDataService.evictCarousels();
+        }
+        if (movies > 0 || carousels > 0) {
+            log.info("Migrated {} movie covers and {} carousel images to file storage", movies, carousels);
+        }
+    }
+
+    private MediaRef migrate(String dataUrl, String owner) {
+        if (dataUrl == null || dataUrl.isEmpty()) {
+            return null;
+        }
+        try {
+            return mediaStorageService.storeDataUrl(dataUrl);
+        } catch (Exception e) {
+            log.warn("Skip migrating image of {}: {}", owner, e.getMessage());
+            return null;
+        }
+    }
+}
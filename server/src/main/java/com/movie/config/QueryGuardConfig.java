@@ -0,0 +1,136 @@
+package com.movie.config;
+
+import com.movie.common.QueryStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// 用 datasource-proxy 包装数据源，按请求统计 SQL 条数、读取行数和字节数，超出预算时告警
+@Configuration
+@ConditionalOnProperty(name = "query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuardConfig implements WebMvcConfigurer {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(statementCounter())
+                            .proxyResultSet()
+                            .methodListener(resultSetCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryGuardFilter> queryGuardFilter(
+            MeterRegistry meterRegistry,
+            @Value("${query-guard.max-queries:50}") int maxQueries,
+            @Value("${query-guard.max-rows:5000}") long maxRows,
+            @Value("${query-guard.fail-on-violation:false}") boolean failOnViolation) {
+        FilterRegistrationBean<QueryGuardFilter> registration = new FilterRegistrationBean<>(
+                new QueryGuardFilter(meterRegistry, maxQueries, maxRows, failOnViolation));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(queryStatsPropagator());
+    }
+
+    // StreamingResponseBody 在 MVC 的异步线程上执行，把请求的统计绑定过去，导出执行的 SQL 和读取的行数计入该请求
+    private static CallableProcessingInterceptor queryStatsPropagator() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                Object stats = request.getAttribute(QueryStats.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (stats instanceof QueryStats queryStats) {
+                    QueryStats.bind(queryStats);
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                QueryStats.clear();
+            }
+        };
+    }
+
+    private static QueryExecutionListener statementCounter() {
+        return new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.addStatement();
+                }
+            }
+        };
+    }
+
+    // ResultSet.next() 返回 true 计一行；按列取值时按字符串长度、字节数组长度估算读取的字节数，其他类型按 8 字节计
+    private static MethodExecutionListener resultSetCounter() {
+        return new MethodExecutionListener() {
+            @Override
+            public void beforeMethod(MethodExecutionContext executionContext) {
+            }
+
+            @Override
+            public void afterMethod(MethodExecutionContext executionContext) {
+                QueryStats stats = QueryStats.current();
+                if (stats == null || !(executionContext.getTarget() instanceof ResultSet)) {
+                    return;
+                }
+                String method = executionContext.getMethod().getName();
+                Object result = executionContext.getResult();
+                if ("next".equals(method)) {
+                    if (Boolean.TRUE.equals(result)) {
+                        stats.addRow();
+                    }
+                } else if (method.startsWith("get") && result != null
+                        && executionContext.getMethodArgs() != null && executionContext.getMethodArgs().length > 0) {
+                    if (result instanceof String value) {
+                        stats.addBytes(value.length());
+                    } else if (result instanceof byte[] value) {
+                        stats.addBytes(value.length);
+                    } else {
+                        stats.addBytes(8);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.movie.config;
+
+import com.movie.common.QueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// 统计每个请求执行的 SQL 条数和读取行数，记录到指标；超过预算时打印警告，测试环境可配置为直接失败。
+// 流式导出在异步线程上查询，统计由 QueryGuardConfig 注册的拦截器带过去，异步处理结束后的 ASYNC 分派中再记录；
+// 导出按设计读取整张表，只检查 SQL 条数预算，不检查行数预算
+public class QueryGuardFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryGuardFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxQueries;
+    private final long maxRows;
+    private final boolean failOnViolation;
+
+    public QueryGuardFilter(MeterRegistry meterRegistry, int maxQueries, long maxRows, boolean failOnViolation) {
+        this.meterRegistry = meterRegistry;
+        this.maxQueries = maxQueries;
+        this.maxRows = maxRows;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = (QueryStats) request.getAttribute(QueryStats.REQUEST_ATTRIBUTE);
+        if (stats == null) {
+            stats = QueryStats.start();
+            request.setAttribute(QueryStats.REQUEST_ATTRIBUTE, stats);
+        } else {
+            QueryStats.bind(stats);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryStats.clear();
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        boolean streamed = isAsyncDispatch(request);
+
+        // 按路由模板聚合，避免路径参数产生大量指标
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        record("http.server.requests.queries", "statements", uri, request.getMethod(), stats.getStatements());
+        record("http.server.requests.rows", "rows", uri, request.getMethod(), stats.getRows());
+        record("http.server.requests.bytes", "bytes", uri, request.getMethod(), stats.getBytes());
+
+        if (stats.getStatements() > maxQueries || (!streamed && stats.getRows() > maxRows)) {
+            String message = String.format("%s %s executed %d statements (budget %d) and fetched %d rows (budget %d)",
+                    request.getMethod(), uri, stats.getStatements(), maxQueries, stats.getRows(), maxRows);
+            if (failOnViolation) {
+                throw new IllegalStateException("Query budget exceeded: " + message);
+            }
+            log.warn("Query budget exceeded: {}", message);
+        }
+    }
+
+    private void record(String name, String unit, String uri, String method, double amount) {
+        DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(amount);
+    }
+}
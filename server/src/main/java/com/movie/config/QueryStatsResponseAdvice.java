@@ -0,0 +1,35 @@
+package com.movie.config;
+
+import com.movie.common.QueryStats;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// 写出响应体之前把当前请求的 SQL 统计放进响应头，方便在浏览器和压测结果中直接查看
+@ControllerAdvice
+public class QueryStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Query-Count", String.valueOf(stats.getStatements()));
+            headers.set("X-Query-Rows", String.valueOf(stats.getRows()));
+            headers.set("X-Query-Bytes", String.valueOf(stats.getBytes()));
+        }
+        return body;
+    }
+}
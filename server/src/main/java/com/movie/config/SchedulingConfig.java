@@ -0,0 +1,10 @@
+package com.movie.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 开启定时任务（播放次数写回等）
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
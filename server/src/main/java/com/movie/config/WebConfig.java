@@ -2,6 +2,7 @@ package com.movie.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
@@ -33,6 +34,9 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 图片等二进制响应直接输出，不能交给 JSON 转换器
+        converters.add(new ByteArrayHttpMessageConverter());
+
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
         List<MediaType> mediaTypes = new ArrayList<>();
         mediaTypes.add(MediaType.APPLICATION_JSON);
@@ -4,6 +4,7 @@ import com.movie.dto.AuthRequest;
 import com.movie.dto.AuthResponse;
 import com.movie.dto.RegisterRequest;
 import com.movie.entity.User;
+import com.movie.service.EntitlementService;
 import com.movie.service.UserService;
 import com.movie.common.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,10 +16,12 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final UserService userService;
+    private final EntitlementService entitlementService;
 
     @Autowired
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, EntitlementService entitlementService) {
         this.userService = userService;
+        this.entitlementService = entitlementService;
     }
 
     @PostMapping(value = "/register", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -44,6 +47,8 @@ public class AuthController {
     public ApiResponse<AuthResponse> login(@RequestBody AuthRequest request) {
         try {
             AuthResponse response = userService.authenticate(request.getUsername(), request.getPassword());
+            // 预加载购买记录，之后的播放权限检查不再查库
+            entitlementService.warm(response.getUserId());
             return ApiResponse.success(response);
         } catch (Exception e) {
             return ApiResponse.error(400, e.getMessage());
@@ -1,10 +1,20 @@
 package com.movie.controller;
 
 import com.movie.common.ApiResponse;
+import com.movie.common.Etags;
+import com.movie.dto.MediaRef;
+import com.movie.dto.VersionedList;
 import com.movie.entity.Carousel;
 import com.movie.repository.CarouselRepository;
+import com.movie.service.MediaStorageService;
+import com.movie.service.ReferenceDataService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,16 +24,54 @@ public class CarouselController {
     @Autowired
     private CarouselRepository carouselRepository;
 
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    // active=true 时只返回当前投放时间段内的启用轮播图，供前台展示
     @GetMapping
-    public ApiResponse<List<Carousel>> getAllCarousels() {
-        List<Carousel> carousels = carouselRepository.findAll();
-        return ApiResponse.success(carousels, "获取成功");
+    public ApiResponse<List<Carousel>> getAllCarousels(
+            @RequestParam(defaultValue = "false") boolean active,
+            ServletWebRequest request) {
+        VersionedList<Carousel> carousels = referenceDataService.getCarousels();
+        if (active) {
+            carousels = referenceDataService.getActiveCarousels(carousels, LocalDateTime.now());
+        }
+        if (Etags.notModified(request, carousels.getVersion())) {
+            return null;
+        }
+        return ApiResponse.success(carousels.getItems(), "获取成功");
+    }
+
+    // v 为图片哈希，带上时响应可被浏览器和 CDN 长期缓存
+    @GetMapping("/{id}/image")
+    public void getCarouselImage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        MediaRef image = carouselRepository.findImageRefById(id).orElse(null);
+        mediaStorageService.serve(image, v, request, response);
     }
 
     @PostMapping
     public ApiResponse<Carousel> createCarousel(@RequestBody Carousel carousel) {
+        // 新建轮播图必须上传图片
+        if (carousel.getImageBase64() == null || carousel.getImageBase64().isEmpty()) {
+            return ApiResponse.error(400, "请上传图片");
+        }
+        try {
+            storeImage(carousel);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "图片格式不正确");
+        } catch (IOException e) {
+            return ApiResponse.error(500, "图片保存失败");
+        }
+
         carousel.setId(null);
-        Carousel savedCarousel = carouselRepository.save(carousel);
+        Carousel savedCarousel = referenceDataService.saveCarousel(carousel);
         return ApiResponse.success(savedCarousel, "创建成功");
     }
 
@@ -32,8 +80,25 @@ public class CarouselController {
         if (!carouselRepository.existsById(id)) {
             return ApiResponse.error(400, "轮播图不存在");
         }
+
+        // 未上传新图片时保留原图片
+        if (carousel.getImageBase64() == null || carousel.getImageBase64().isEmpty()) {
+            MediaRef image = carouselRepository.findImageRefById(id).orElse(null);
+            carousel.setImageBase64(null);
+            carousel.setImageHash(image != null ? image.getHash() : null);
+            carousel.setImageContentType(image != null ? image.getContentType() : null);
+        } else {
+            try {
+                storeImage(carousel);
+            } catch (IllegalArgumentException e) {
+                return ApiResponse.error(400, "图片格式不正确");
+            } catch (IOException e) {
+                return ApiResponse.error(500, "图片保存失败");
+            }
+        }
+
         carousel.setId(id);
-        Carousel updatedCarousel = carouselRepository.save(carousel);
+        Carousel updatedCarousel = referenceDataService.saveCarousel(carousel);
         return ApiResponse.success(updatedCarousel, "更新成功");
     }
 
@@ -42,7 +107,15 @@ public class CarouselController {
         if (!carouselRepository.existsById(id)) {
             return ApiResponse.error(400, "轮播图不存在");
         }
-        carouselRepository.deleteById(id);
+        referenceDataService.deleteCarousel(id);
         return ApiResponse.success(null, "删除成功");
     }
-} 
\ No newline at end of file
+
+    // 上传的图片转存到文件存储，数据库只保存哈希
+    private void storeImage(Carousel carousel) throws IOException {
+        MediaRef image = mediaStorageService.storeDataUrl(carousel.getImageBase64());
+        carousel.setImageHash(image.getHash());
+        carousel.setImageContentType(image.getContentType());
+        carousel.setImageBase64(null);
+    }
+}
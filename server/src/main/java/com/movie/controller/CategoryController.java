@@ -1,10 +1,14 @@
 package com.movie.controller;
 
 import com.movie.common.ApiResponse;
+import com.movie.common.Etags;
+import com.movie.dto.VersionedList;
 import com.movie.entity.Category;
 import com.movie.repository.CategoryRepository;
+import com.movie.service.ReferenceDataService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -15,22 +19,31 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     @GetMapping
-    public ApiResponse<List<Category>> getCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return ApiResponse.success(categories, "获取成功");
+    public ApiResponse<List<Category>> getCategories(ServletWebRequest request) {
+        // 从本地缓存读取，内容未变化时返回 304
+        VersionedList<Category> categories = referenceDataService.getCategories();
+        if (Etags.notModified(request, categories.getVersion())) {
+            return null;
+        }
+        return ApiResponse.success(categories.getItems(), "获取成功");
     }
 
     @GetMapping("/{id}")
     public ApiResponse<Category> getCategory(@PathVariable Long id) {
-        return categoryRepository.findById(id)
+        return referenceDataService.getCategories().getItems().stream()
+                .filter(item -> item.getId().equals(id))
+                .findFirst()
                 .map(category -> ApiResponse.success(category, "获取成功"))
                 .orElse(ApiResponse.error(400, "分类不存在"));
     }
 
     @PostMapping
     public ApiResponse<Category> createCategory(@RequestBody Category category) {
-        Category savedCategory = categoryRepository.save(category);
+        Category savedCategory = referenceDataService.saveCategory(category);
         return ApiResponse.success(savedCategory, "创建成功");
     }
 
@@ -40,7 +53,7 @@ public class CategoryController {
             return ApiResponse.error(400, "分类不存在");
         }
         category.setId(id);
-        Category updatedCategory = categoryRepository.save(category);
+        Category updatedCategory = referenceDataService.saveCategory(category);
         return ApiResponse.success(updatedCategory, "更新成功");
     }
 
@@ -49,7 +62,7 @@ public class CategoryController {
         if (!categoryRepository.existsById(id)) {
             return ApiResponse.error(400, "分类不存在");
         }
-        categoryRepository.deleteById(id);
+        referenceDataService.deleteCategory(id);
         return ApiResponse.success(null, "删除成功");
     }
 } 
\ No newline at end of file
@@ -1,17 +1,21 @@
 package com.movie.controller;
 
+import com.movie.dto.BatchItemResult;
+import com.movie.dto.MovieSummary;
 import com.movie.entity.Collection;
-import com.movie.entity.Movie;
+import com.movie.entity.CollectionItem;
+import com.movie.repository.CollectionItemRepository;
 import com.movie.repository.CollectionRepository;
 import com.movie.repository.MovieRepository;
 import com.movie.common.ApiResponse;
+import com.movie.service.BatchWriteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Arrays;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
 
 @RestController
 @RequestMapping("/collections")
@@ -20,9 +24,15 @@ public class CollectionController {
     @Autowired
     private CollectionRepository collectionRepository;
 
+    @Autowired
+    private CollectionItemRepository collectionItemRepository;
+
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private BatchWriteService batchWriteService;
+
     @GetMapping
     public ApiResponse<List<Collection>> getUserCollections(@RequestParam Long userId) {
         List<Collection> collections = collectionRepository.findByUserId(userId);
@@ -30,20 +40,12 @@ public class CollectionController {
     }
 
     @GetMapping("/{id}/movies")
-    public ApiResponse<List<Movie>> getCollectionMovies(@PathVariable Long id) {
-        return collectionRepository.findById(id)
-                .map(collection -> {
-                    if (collection.getMovieIds() == null || collection.getMovieIds().isEmpty()) {
-                        return ApiResponse.<List<Movie>>success(new ArrayList<>(), "获取成功");
-                    }
-                    List<Long> movieIds = Arrays.stream(collection.getMovieIds().split(","))
-                            .filter(s -> !s.isEmpty())
-                            .map(Long::parseLong)
-                            .collect(Collectors.toList());
-                    List<Movie> movies = movieRepository.findAllById(movieIds);
-                    return ApiResponse.<List<Movie>>success(movies, "获取成功");
-                })
-                .orElse(ApiResponse.<List<Movie>>error(400, "收藏夹不存在"));
+    public ApiResponse<List<MovieSummary>> getCollectionMovies(@PathVariable Long id) {
+        if (!collectionRepository.existsById(id)) {
+            return ApiResponse.error(400, "收藏夹不存在");
+        }
+        List<MovieSummary> movies = movieRepository.findSummariesByCollectionId(id);
+        return ApiResponse.success(movies, "获取成功");
     }
 
     @PostMapping
@@ -52,18 +54,36 @@ public class CollectionController {
         return ApiResponse.success(savedCollection, "创建成功");
     }
 
+    // movieIds 为逗号分隔的电影ID，传入时整体替换收藏夹内容
     @PutMapping("/{id}")
+    @Transactional
     public ApiResponse<Collection> updateCollection(
             @PathVariable Long id,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String movieIds) {
+        // 先解析电影ID，格式不对时不做任何修改
+        List<Long> parsedIds;
+        try {
+            parsedIds = movieIds == null ? null : Arrays.stream(movieIds.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .map(Long::parseLong)
+                    .distinct()
+                    .collect(Collectors.toList());
+        } catch (NumberFormatException e) {
+            return ApiResponse.error(400, "电影ID格式不正确");
+        }
         return collectionRepository.findById(id)
                 .map(collection -> {
                     if (name != null) {
                         collection.setName(name);
                     }
-                    if (movieIds != null) {
-                        collection.setMovieIds(movieIds);
+                    if (parsedIds != null) {
+                        collectionItemRepository.deleteByCollectionId(id);
+                        List<CollectionItem> items = parsedIds.stream()
+                                .map(movieId -> new CollectionItem(id, movieId))
+                                .collect(Collectors.toList());
+                        collectionItemRepository.saveAll(items);
                     }
                     Collection updatedCollection = collectionRepository.save(collection);
                     return ApiResponse.success(updatedCollection, "更新成功");
@@ -72,64 +92,72 @@ public class CollectionController {
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ApiResponse<Void> deleteCollection(@PathVariable Long id) {
         if (!collectionRepository.existsById(id)) {
             return ApiResponse.error(400, "收藏夹不存在");
         }
+        collectionItemRepository.deleteByCollectionId(id);
         collectionRepository.deleteById(id);
         return ApiResponse.success(null, "删除成功");
     }
 
     @PostMapping("/{id}/movies")
-    public ApiResponse<Collection> addMovieToCollection(@PathVariable Long id, @RequestParam Long movieId) {
-        return collectionRepository.findById(id)
-                .map(collection -> {
-                    String currentIds = collection.getMovieIds();
-                    List<String> movieIds = currentIds.isEmpty() ? 
-                        new java.util.ArrayList<>() : 
-                        new java.util.ArrayList<>(Arrays.asList(currentIds.split(",")));
-                    
-                    String movieIdStr = String.valueOf(movieId);
-                    if (!movieIds.contains(movieIdStr)) {
-                        movieIds.add(movieIdStr);
-                        collection.setMovieIds(String.join(",", movieIds));
-                        Collection updatedCollection = collectionRepository.save(collection);
-                        return ApiResponse.success(updatedCollection, "添加成功");
-                    }
-                    return ApiResponse.<Collection>error(400, "电影已在收藏夹中");
-                })
-                .orElse(ApiResponse.<Collection>error(400, "收藏夹不存在"));
+    public ApiResponse<Void> addMovieToCollection(@PathVariable Long id, @RequestParam Long movieId) {
+        if (!collectionRepository.existsById(id)) {
+            return ApiResponse.error(400, "收藏夹不存在");
+        }
+        // 单条 INSERT IGNORE，重复由唯一索引判断，不需要先查询
+        if (collectionItemRepository.insertIgnore(id, movieId) == 0) {
+            return ApiResponse.error(400, "电影已在收藏夹中");
+        }
+        return ApiResponse.success(null, "添加成功");
+    }
+
+    // 批量向收藏夹添加电影，每部电影单独返回结果
+    @PostMapping("/{id}/movies/batch")
+    public ApiResponse<List<BatchItemResult>> addMoviesToCollection(@PathVariable Long id, @RequestBody List<Long> movieIds) {
+        if (!collectionRepository.existsById(id)) {
+            return ApiResponse.error(400, "收藏夹不存在");
+        }
+        String error = batchWriteService.checkSize(movieIds);
+        if (error != null) {
+            return ApiResponse.error(400, error);
+        }
+        List<BatchItemResult> results = batchWriteService.addCollectionMovies(id, movieIds);
+        return ApiResponse.success(results, BatchItemResult.summarize(results));
     }
 
     @DeleteMapping("/{id}/movies/{movieId}")
-    public ApiResponse<Collection> removeMovieFromCollection(@PathVariable Long id, @PathVariable Long movieId) {
-        return collectionRepository.findById(id)
-                .map(collection -> {
-                    String currentIds = collection.getMovieIds();
-                    if (currentIds.isEmpty()) {
-                        return ApiResponse.<Collection>error(400, "电影不在收藏夹中");
-                    }
-                    
-                    List<String> movieIds = new java.util.ArrayList<>(Arrays.asList(currentIds.split(",")));
-                    String movieIdStr = String.valueOf(movieId);
-                    if (movieIds.remove(movieIdStr)) {
-                        collection.setMovieIds(String.join(",", movieIds));
-                        Collection updatedCollection = collectionRepository.save(collection);
-                        return ApiResponse.success(updatedCollection, "移除成功");
-                    }
-                    return ApiResponse.<Collection>error(400, "电影不在收藏夹中");
-                })
-                .orElse(ApiResponse.<Collection>error(400, "收藏夹不存在"));
+    public ApiResponse<Void> removeMovieFromCollection(@PathVariable Long id, @PathVariable Long movieId) {
+        if (collectionItemRepository.deleteByCollectionIdAndMovieId(id, movieId) == 0) {
+            return ApiResponse.error(400, "电影不在收藏夹中");
+        }
+        return ApiResponse.success(null, "移除成功");
+    }
+
+    // 从用户所有收藏夹中移除该电影
+    @DeleteMapping("/movies/{movieId}")
+    public ApiResponse<Void> removeMovieFromUserCollections(@RequestParam Long userId, @PathVariable Long movieId) {
+        if (collectionItemRepository.deleteByUserIdAndMovieId(userId, movieId) == 0) {
+            return ApiResponse.error(400, "电影不在收藏夹中");
+        }
+        return ApiResponse.success(null, "移除成功");
     }
 
     @GetMapping("/check")
     public ApiResponse<Boolean> checkMovieInCollections(@RequestParam Long userId, @RequestParam Long movieId) {
-        List<Collection> collections = collectionRepository.findByUserId(userId);
-        boolean isCollected = collections.stream()
-                .anyMatch(collection -> {
-                    String[] movieIds = collection.getMovieIds().split(",");
-                    return Arrays.asList(movieIds).contains(String.valueOf(movieId));
-                });
+        boolean isCollected = collectionItemRepository.existsByUserIdAndMovieId(userId, movieId);
         return ApiResponse.success(isCollected, "查询成功");
     }
-} 
\ No newline at end of file
+
+    // 批量查询一组电影中已被用户收藏的电影ID
+    @GetMapping("/check/batch")
+    public ApiResponse<List<Long>> checkMoviesInCollections(@RequestParam Long userId, @RequestParam List<Long> movieIds) {
+        if (movieIds.isEmpty()) {
+            return ApiResponse.success(List.of(), "查询成功");
+        }
+        List<Long> collected = collectionItemRepository.findCollectedMovieIds(userId, movieIds);
+        return ApiResponse.success(collected, "查询成功");
+    }
+}
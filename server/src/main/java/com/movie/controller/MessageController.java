@@ -3,8 +3,11 @@ package com.movie.controller;
 import com.movie.entity.Message;
 import com.movie.repository.MessageRepository;
 import com.movie.common.ApiResponse;
+import com.movie.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,9 +23,22 @@ public class MessageController {
         "suggestion", "content", "technical", "other"
     ));
 
+    private static final List<ExportService.Column<Message>> EXPORT_COLUMNS = List.of(
+        ExportService.column("id", Message::getId),
+        ExportService.column("userId", Message::getUserId),
+        ExportService.column("type", Message::getType),
+        ExportService.column("status", Message::getStatus),
+        ExportService.column("content", Message::getContent),
+        ExportService.column("createdAt", Message::getCreatedAt),
+        ExportService.column("updatedAt", Message::getUpdatedAt)
+    );
+
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private ExportService exportService;
+
     // 用户获取自己的消息列表
     @GetMapping("/user/{userId}")
     public ApiResponse<List<Message>> getUserMessages(@PathVariable Long userId) {
@@ -37,6 +53,13 @@ public class MessageController {
         return ApiResponse.success(messages);
     }
 
+    // 管理员导出全部消息，format 为 ndjson 或 csv，边查边写
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportMessages(@RequestParam(defaultValue = "ndjson") String format) {
+        return exportService.export("messages", format,
+                messageRepository::streamAllByOrderByCreatedAtDesc, EXPORT_COLUMNS);
+    }
+
     // 创建新消息
     @PostMapping
     public ApiResponse<Message> createMessage(@RequestBody Message message) {
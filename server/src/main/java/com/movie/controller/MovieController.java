@@ -1,11 +1,37 @@
 package com.movie.controller;
 
 import com.movie.common.ApiResponse;
+import com.movie.common.Cursor;
+import com.movie.dto.CursorPage;
+import com.movie.dto.MediaRef;
+import com.movie.dto.MovieSummary;
 import com.movie.entity.Movie;
 import com.movie.repository.MovieRepository;
+import com.movie.service.EntitlementService;
+import com.movie.service.LikeLeaderboardService;
+import com.movie.service.MediaStorageService;
+import com.movie.service.MovieRatingService;
+import com.movie.service.PlayCountService;
+import com.movie.service.RankingService;
+import com.movie.service.RecommendService;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/movies")
@@ -14,12 +40,128 @@ public class MovieController {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private RecommendService recommendService;
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private PlayCountService playCountService;
+
+    @Autowired
+    private LikeLeaderboardService likeLeaderboardService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private MovieRatingService movieRatingService;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
     @GetMapping
-    public ApiResponse<List<Movie>> getAllMovies() {
-        List<Movie> movies = movieRepository.findAll();
+    public ApiResponse<List<MovieSummary>> getAllMovies() {
+        // 列表不返回封面，避免每次加载大字段
+        List<MovieSummary> movies = movieRepository.findAllSummaries();
         return ApiResponse.success(movies, "获取成功");
     }
 
+    // 条件筛选 + 游标分页，筛选、排序和分页都在数据库中完成
+    @GetMapping("/search")
+    public ApiResponse<CursorPage<MovieSummary>> searchMovies(
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) Long regionId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer duration,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String actor,
+            @RequestParam(defaultValue = "playCount") String sort,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+
+        SortField sortField = SortField.of(sort);
+        if (sortField == null) {
+            return ApiResponse.error(400, "不支持的排序字段");
+        }
+        if (size < 1 || size > 100) {
+            return ApiResponse.error(400, "每页数量必须在1-100之间");
+        }
+        boolean ascending = "asc".equalsIgnoreCase(order);
+
+        // 解析上一页最后一条记录的位置
+        Comparable<?> lastValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                Cursor after = Cursor.decode(cursor);
+                lastValue = sortField.parser.apply(after.getValue());
+                lastId = after.getId();
+            } catch (IllegalArgumentException e) {
+                return ApiResponse.error(400, "无效的游标");
+            }
+        }
+        Comparable<?> seekValue = lastValue;
+        Long seekId = lastId;
+
+        // 构建动态查询条件
+        Specification<Movie> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // 命中任一分类即可，通过 movie_categories 关联表按索引查找
+            if (categoryIds != null && !categoryIds.isEmpty()) {
+                Subquery<Long> matched = query.subquery(Long.class);
+                Join<Movie, Long> category = matched.correlate(root).join("categoryIds");
+                matched.select(category).where(category.in(categoryIds));
+                predicates.add(cb.exists(matched));
+            }
+            if (regionId != null) {
+                predicates.add(cb.equal(root.get("region"), regionId));
+            }
+            if (year != null) {
+                predicates.add(cb.equal(root.get("year"), year));
+            }
+            if (duration != null) {
+                predicates.add(cb.equal(root.get("duration"), duration));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (actor != null && !actor.trim().isEmpty()) {
+                predicates.add(cb.like(cb.lower(root.get("actors")), "%" + actor.trim().toLowerCase() + "%"));
+            }
+            if (seekValue != null) {
+                predicates.add(seek(cb, root, sortField.field, seekValue, seekId, ascending));
+            }
+
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        // 排序字段相同时按ID排序，保证游标位置唯一
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sortBy = sortField == SortField.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField.field).and(Sort.by(direction, "id"));
+
+        // 多取一条用于判断是否还有下一页，不执行 COUNT 查询
+        List<Movie> movies = movieRepository.findBy(spec, q -> q.sortBy(sortBy).limit(size + 1).all());
+        boolean hasNext = movies.size() > size;
+        if (hasNext) {
+            movies = movies.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Movie last = movies.get(movies.size() - 1);
+            nextCursor = Cursor.encode(sortField.getter.apply(last), last.getId());
+        }
+
+        List<MovieSummary> content = movies.stream().map(MovieSummary::of).collect(Collectors.toList());
+        return ApiResponse.success(new CursorPage<>(content, nextCursor, hasNext), "获取成功");
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<Movie> getMovie(@PathVariable Long id) {
         return movieRepository.findById(id)
@@ -27,6 +169,17 @@ public class MovieController {
                 .orElse(ApiResponse.error(400, "电影不存在"));
     }
 
+    // v 为封面哈希，带上时响应可被浏览器和 CDN 长期缓存
+    @GetMapping("/{id}/cover")
+    public void getMovieCover(
+            @PathVariable Long id,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        MediaRef cover = movieRepository.findCoverRefById(id).orElse(null);
+        mediaStorageService.serve(cover, v, request, response);
+    }
+
     @PostMapping
     public ApiResponse<Movie> createMovie(@RequestBody Movie movie) {
         // 如果是免费电影，价格设为0
@@ -38,8 +191,24 @@ public class MovieController {
             return ApiResponse.error(400, "付费电影必须设置价格");
         }
         
+        // 新建电影必须上传封面
+        if (movie.getCoverBase64() == null || movie.getCoverBase64().isEmpty()) {
+            return ApiResponse.error(400, "请上传封面图");
+        }
+        try {
+            storeCover(movie);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "封面格式不正确");
+        } catch (IOException e) {
+            return ApiResponse.error(500, "封面保存失败");
+        }
+
         movie.setId(null);
+        movie.setLikeCount(0L);
         Movie savedMovie = movieRepository.save(movie);
+        recommendService.index(savedMovie);
+        entitlementService.updateMovie(savedMovie.getId(), savedMovie.getIsFree());
+        rankingService.invalidate();
         return ApiResponse.success(savedMovie, "创建成功");
     }
 
@@ -58,17 +227,96 @@ public class MovieController {
             return ApiResponse.error(400, "付费电影必须设置价格");
         }
 
+        // 未上传新封面时保留原封面
+        if (movie.getCoverBase64() == null || movie.getCoverBase64().isEmpty()) {
+            MediaRef cover = movieRepository.findCoverRefById(id).orElse(null);
+            movie.setCoverBase64(null);
+            movie.setCoverHash(cover != null ? cover.getHash() : null);
+            movie.setCoverContentType(cover != null ? cover.getContentType() : null);
+        } else {
+            try {
+                storeCover(movie);
+            } catch (IllegalArgumentException e) {
+                return ApiResponse.error(400, "封面格式不正确");
+            } catch (IOException e) {
+                return ApiResponse.error(500, "封面保存失败");
+            }
+        }
+
         movie.setId(id);
         Movie updatedMovie = movieRepository.save(movie);
+        movieRatingService.refreshScore(id);
+        recommendService.index(updatedMovie);
+        entitlementService.updateMovie(id, updatedMovie.getIsFree());
+        rankingService.invalidate();
         return ApiResponse.success(updatedMovie, "更新成功");
     }
 
+    // 播放次数在内存中累加，由 PlayCountService 定时写回
+    @PostMapping("/{id}/play")
+    public ApiResponse<Void> play(@PathVariable Long id, @RequestParam(required = false) Long userId) {
+        if (!recommendService.contains(id) && !movieRepository.existsById(id)) {
+            return ApiResponse.error(400, "电影不存在");
+        }
+        playCountService.record(id, userId);
+        return ApiResponse.success(null, "播放成功");
+    }
+
     @DeleteMapping("/{id}")
     public ApiResponse<Void> deleteMovie(@PathVariable Long id) {
         if (!movieRepository.existsById(id)) {
             return ApiResponse.error(400, "电影不存在");
         }
         movieRepository.deleteById(id);
+        recommendService.remove(id);
+        playCountService.discard(id);
+        likeLeaderboardService.remove(id);
+        entitlementService.updateMovie(id, false);
+        rankingService.invalidate();
         return ApiResponse.success(null, "删除成功");
     }
-} 
\ No newline at end of file
+
+    // 上传的封面转存到文件存储，数据库只保存哈希
+    private void storeCover(Movie movie) throws IOException {
+        MediaRef cover = mediaStorageService.storeDataUrl(movie.getCoverBase64());
+        movie.setCoverHash(cover.getHash());
+        movie.setCoverContentType(cover.getContentType());
+        movie.setCoverBase64(null);
+    }
+
+    // 游标条件：排序字段越过上一页最后一条，或字段相同且ID越过
+    @SuppressWarnings("unchecked")
+    private static <Y extends Comparable<? super Y>> Predicate seek(
+            CriteriaBuilder cb, Root<Movie> root, String field, Object value, Long lastId, boolean ascending) {
+        Expression<Y> path = root.get(field);
+        Expression<Long> id = root.get("id");
+        Y last = (Y) value;
+        if (ascending) {
+            return cb.or(cb.greaterThan(path, last), cb.and(cb.equal(path, last), cb.greaterThan(id, lastId)));
+        }
+        return cb.or(cb.lessThan(path, last), cb.and(cb.equal(path, last), cb.lessThan(id, lastId)));
+    }
+
+    // 搜索接口支持的排序字段
+    private enum SortField {
+        RATING("rating", Double::valueOf, Movie::getRating),
+        SCORE("score", Double::valueOf, Movie::getScore),
+        PLAY_COUNT("playCount", Integer::valueOf, Movie::getPlayCount),
+        YEAR("year", Integer::valueOf, Movie::getYear),
+        ID("id", Long::valueOf, Movie::getId);
+
+        private final String field;
+        private final Function<String, Comparable<?>> parser;
+        private final Function<Movie, Object> getter;
+
+        SortField(String field, Function<String, Comparable<?>> parser, Function<Movie, Object> getter) {
+            this.field = field;
+            this.parser = parser;
+            this.getter = getter;
+        }
+
+        private static SortField of(String field) {
+            return Arrays.stream(values()).filter(f -> f.field.equals(field)).findFirst().orElse(null);
+        }
+    }
+}
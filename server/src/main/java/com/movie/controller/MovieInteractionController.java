@@ -2,36 +2,99 @@ package com.movie.controller;
 
 import com.movie.entity.MovieInteraction;
 import com.movie.repository.MovieInteractionRepository;
+import com.movie.repository.MovieRepository;
+import com.movie.service.BatchWriteService;
+import com.movie.service.ExportService;
+import com.movie.service.LikeLeaderboardService;
+import com.movie.service.MovieRatingService;
+import com.movie.service.TableStatsService;
 import com.movie.common.ApiResponse;
+import com.movie.common.Cursor;
+import com.movie.dto.BatchItemResult;
+import com.movie.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/movie-interactions")
 public class MovieInteractionController {
 
+    private static final List<ExportService.Column<MovieInteraction>> EXPORT_COLUMNS = List.of(
+        ExportService.column("id", MovieInteraction::getId),
+        ExportService.column("userId", MovieInteraction::getUserId),
+        ExportService.column("movieId", MovieInteraction::getMovieId),
+        ExportService.column("liked", MovieInteraction::getLiked),
+        ExportService.column("likedAt", MovieInteraction::getLikedAt),
+        ExportService.column("rating", MovieInteraction::getRating),
+        ExportService.column("comment", MovieInteraction::getComment),
+        ExportService.column("playCount", MovieInteraction::getPlayCount),
+        ExportService.column("createdAt", MovieInteraction::getCreatedAt),
+        ExportService.column("updatedAt", MovieInteraction::getUpdatedAt)
+    );
+
     @Autowired
     private MovieInteractionRepository movieInteractionRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private LikeLeaderboardService likeLeaderboardService;
+
+    @Autowired
+    private MovieRatingService movieRatingService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TableStatsService tableStatsService;
+
+    @Autowired
+    private BatchWriteService batchWriteService;
+
+    // 按创建时间倒序的游标分页，翻到任意深度都只读取一页的数据
     @GetMapping
-    public ApiResponse<Page<MovieInteraction>> getAllInteractions(
+    public ApiResponse<CursorPage<MovieInteraction>> getAllInteractions(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long movieId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (size < 1 || size > 100) {
+            return ApiResponse.error(400, "每页数量必须在1-100之间");
+        }
+
+        // 解析上一页最后一条记录的位置
+        LocalDateTime lastCreatedAt = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                Cursor after = Cursor.decode(cursor);
+                lastCreatedAt = LocalDateTime.parse(after.getValue());
+                lastId = after.getId();
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ApiResponse.error(400, "无效的游标");
+            }
+        }
+        LocalDateTime seekCreatedAt = lastCreatedAt;
+        Long seekId = lastId;
+
         // 构建动态查询条件
         Specification<MovieInteraction> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -42,16 +105,51 @@ public class MovieInteractionController {
             if (movieId != null) {
                 predicates.add(cb.equal(root.get("movieId"), movieId));
             }
+            // 从 (createdAt, id) 小于上一页末尾的位置继续读
+            if (seekCreatedAt != null) {
+                Path<LocalDateTime> createdAt = root.get("createdAt");
+                Path<Long> id = root.get("id");
+                predicates.add(cb.or(
+                    cb.lessThan(createdAt, seekCreatedAt),
+                    cb.and(cb.equal(createdAt, seekCreatedAt), cb.lessThan(id, seekId))));
+            }
             
             return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        // 创建分页和排序
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        
-        // 执行查询
-        Page<MovieInteraction> interactions = movieInteractionRepository.findAll(spec, pageable);
-        return ApiResponse.success(interactions, "获取成功");
+        // 创建时间相同时按ID排序，保证游标位置唯一；多取一条判断是否还有下一页
+        Sort sort = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+        List<MovieInteraction> interactions = movieInteractionRepository.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all());
+        boolean hasNext = interactions.size() > size;
+        if (hasNext) {
+            interactions = interactions.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            MovieInteraction last = interactions.get(interactions.size() - 1);
+            nextCursor = Cursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        // 总数只在需要时按统计信息估算，不执行 COUNT 查询
+        Long total = null;
+        if (withTotal) {
+            Map<String, Object> filters = new LinkedHashMap<>();
+            filters.put("user_id", userId);
+            filters.put("movie_id", movieId);
+            total = tableStatsService.estimateRows("movie_interactions", filters);
+        }
+        return ApiResponse.success(new CursorPage<>(interactions, nextCursor, hasNext, total), "获取成功");
+    }
+
+    // 导出互动记录，筛选条件与分页列表相同，format 为 ndjson 或 csv
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInteractions(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long movieId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return exportService.export("movie-interactions", format,
+                () -> movieInteractionRepository.streamForExport(userId, movieId), EXPORT_COLUMNS);
     }
 
     @GetMapping("/user/{userId}")
@@ -70,6 +168,7 @@ public class MovieInteractionController {
     }
 
     @PutMapping("/user/{userId}/movie/{movieId}")
+    @Transactional
     public ApiResponse<MovieInteraction> updateInteraction(
             @PathVariable Long userId,
             @PathVariable Long movieId,
@@ -78,45 +177,81 @@ public class MovieInteractionController {
         if (interaction == null) {
             return ApiResponse.error(400, "请求数据不能为空");
         }
+        // 先校验再写库：校验失败时直接返回，事务会正常提交，不能已经插入空记录或改动了评分
+        Integer rating = interaction.getRating();
+        if (rating != null && rating != 0 && (rating < 1 || rating > 5)) {
+            return ApiResponse.error(400, "评分必须在1-5之间");
+        }
+        if (interaction.getComment() != null && interaction.getComment().trim().isEmpty()) {
+            return ApiResponse.error(400, "评论内容不能为空");
+        }
 
+        if (!movieInteractionRepository.existsByUserIdAndMovieId(userId, movieId)) {
+            movieInteractionRepository.insertIfAbsent(userId, movieId);
+        }
         MovieInteraction existingInteraction = movieInteractionRepository
-                .findByUserIdAndMovieId(userId, movieId)
-                .orElseGet(() -> {
-                    MovieInteraction newInteraction = new MovieInteraction();
-                    newInteraction.setUserId(userId);
-                    newInteraction.setMovieId(movieId);
-                    return newInteraction;
-                });
-
-        // 更新互动信息
-        if (interaction.getLiked() != null) {
-            existingInteraction.setLiked(interaction.getLiked());
-        }
-        if (interaction.getRating() != null) {
-            if (interaction.getRating() < 1 || interaction.getRating() > 5) {
-                return ApiResponse.error(400, "评分必须在1-5之间");
-            }
-            existingInteraction.setRating(interaction.getRating());
+                .findWithLockByUserIdAndMovieId(userId, movieId)
+                .orElseThrow();
+
+        // 更新互动信息，评分传 0 表示取消评分
+        Integer oldRating = existingInteraction.getRating();
+        if (rating != null) {
+            existingInteraction.setRating(rating == 0 ? null : rating);
         }
         if (interaction.getComment() != null) {
-            if (interaction.getComment().trim().isEmpty()) {
-                return ApiResponse.error(400, "评论内容不能为空");
-            }
             existingInteraction.setComment(interaction.getComment().trim());
         }
 
+        // 点赞状态变化时同步调整电影点赞数，增量按加锁读到的旧值计算，liked 为 NULL 视为未点赞
+        long likeDelta = 0;
+        Boolean liked = interaction.getLiked();
+        if (liked != null) {
+            boolean oldLiked = Boolean.TRUE.equals(existingInteraction.getLiked());
+            LocalDateTime likedAt = liked ? LocalDateTime.now() : null;
+            if (movieInteractionRepository.updateLiked(existingInteraction.getId(), liked, likedAt) > 0) {
+                likeDelta = (liked ? 1 : 0) - (oldLiked ? 1 : 0);
+                existingInteraction.setLiked(liked);
+                existingInteraction.setLikedAt(likedAt);
+            }
+        }
+
         MovieInteraction savedInteraction = movieInteractionRepository.save(existingInteraction);
+        if (likeDelta != 0) {
+            movieRepository.addLikes(movieId, likeDelta);
+            likeLeaderboardService.adjust(movieId, likeDelta);
+        }
+
+        // 评分变化时累加到电影的评分统计
+        movieRatingService.applyChange(movieId, oldRating, savedInteraction.getRating());
         return ApiResponse.success(savedInteraction, "更新成功");
     }
 
+    // 批量创建或修改互动记录，规则与单条修改相同，每条数据单独返回结果
+    @PutMapping("/batch")
+    public ApiResponse<List<BatchItemResult>> batchUpdateInteractions(@RequestBody List<MovieInteraction> interactions) {
+        String error = batchWriteService.checkSize(interactions);
+        if (error != null) {
+            return ApiResponse.error(400, error);
+        }
+        List<BatchItemResult> results = batchWriteService.upsertInteractions(interactions);
+        return ApiResponse.success(results, BatchItemResult.summarize(results));
+    }
+
     @DeleteMapping("/{id}")
+    @Transactional
     public ApiResponse<Void> deleteInteraction(@PathVariable Long id) {
-        Optional<MovieInteraction> interaction = movieInteractionRepository.findById(id);
+        Optional<MovieInteraction> interaction = movieInteractionRepository.findWithLockById(id);
         if (interaction.isEmpty()) {
             return ApiResponse.error(400, "互动记录不存在");
         }
         
         movieInteractionRepository.deleteById(id);
+        if (Boolean.TRUE.equals(interaction.get().getLiked())) {
+            Long movieId = interaction.get().getMovieId();
+            movieRepository.addLikes(movieId, -1);
+            likeLeaderboardService.adjust(movieId, -1);
+        }
+        movieRatingService.applyChange(interaction.get().getMovieId(), interaction.get().getRating(), null);
         return ApiResponse.success(null, "删除成功");
     }
 } 
\ No newline at end of file
@@ -7,23 +7,46 @@ import com.movie.repository.OrderRepository;
 import com.movie.repository.MovieRepository;
 import com.movie.repository.UserMovieRepository;
 import com.movie.common.ApiResponse;
+import com.movie.common.Cursor;
+import com.movie.dto.BatchItemResult;
+import com.movie.dto.CursorPage;
+import com.movie.service.BatchWriteService;
+import com.movie.service.EntitlementService;
+import com.movie.service.ExportService;
+import com.movie.service.RecommendService;
+import com.movie.service.SalesRollupService;
+import com.movie.service.TableStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
+    private static final List<ExportService.Column<Order>> EXPORT_COLUMNS = List.of(
+        ExportService.column("id", Order::getId),
+        ExportService.column("userId", Order::getUserId),
+        ExportService.column("movieId", Order::getMovieId),
+        ExportService.column("amount", Order::getAmount),
+        ExportService.column("status", Order::getStatus),
+        ExportService.column("createdAt", Order::getCreatedAt),
+        ExportService.column("paidAt", Order::getPaidAt)
+    );
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -33,13 +56,52 @@ public class OrderController {
     @Autowired
     private UserMovieRepository userMovieRepository;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
+    @Autowired
+    private RecommendService recommendService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TableStatsService tableStatsService;
+
+    @Autowired
+    private BatchWriteService batchWriteService;
+
+    // 按创建时间倒序的游标分页，翻到任意深度都只读取一页的数据
     @GetMapping
-    public ApiResponse<Page<Order>> getAllOrders(
+    public ApiResponse<CursorPage<Order>> getAllOrders(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long movieId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (size < 1 || size > 100) {
+            return ApiResponse.error(400, "每页数量必须在1-100之间");
+        }
+
+        // 解析上一页最后一条记录的位置
+        LocalDateTime lastCreatedAt = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                Cursor after = Cursor.decode(cursor);
+                lastCreatedAt = LocalDateTime.parse(after.getValue());
+                lastId = after.getId();
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ApiResponse.error(400, "无效的游标");
+            }
+        }
+        LocalDateTime seekCreatedAt = lastCreatedAt;
+        Long seekId = lastId;
+
         // 构建动态查询条件
         Specification<Order> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -50,16 +112,51 @@ public class OrderController {
             if (movieId != null) {
                 predicates.add(cb.equal(root.get("movieId"), movieId));
             }
+            // 从 (createdAt, id) 小于上一页末尾的位置继续读
+            if (seekCreatedAt != null) {
+                Path<LocalDateTime> createdAt = root.get("createdAt");
+                Path<Long> id = root.get("id");
+                predicates.add(cb.or(
+                    cb.lessThan(createdAt, seekCreatedAt),
+                    cb.and(cb.equal(createdAt, seekCreatedAt), cb.lessThan(id, seekId))));
+            }
             
             return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        // 创建分页和排序
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        
-        // 执行查询
-        Page<Order> orders = orderRepository.findAll(spec, pageable);
-        return ApiResponse.success(orders, "获取成功");
+        // 创建时间相同时按ID排序，保证游标位置唯一；多取一条判断是否还有下一页
+        Sort sort = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+        List<Order> orders = orderRepository.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all());
+        boolean hasNext = orders.size() > size;
+        if (hasNext) {
+            orders = orders.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = Cursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        // 总数只在需要时按统计信息估算，不执行 COUNT 查询
+        Long total = null;
+        if (withTotal) {
+            Map<String, Object> filters = new LinkedHashMap<>();
+            filters.put("user_id", userId);
+            filters.put("movie_id", movieId);
+            total = tableStatsService.estimateRows("orders", filters);
+        }
+        return ApiResponse.success(new CursorPage<>(orders, nextCursor, hasNext, total), "获取成功");
+    }
+
+    // 导出订单，筛选条件与分页列表相同，format 为 ndjson 或 csv
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long movieId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return exportService.export("orders", format,
+                () -> orderRepository.streamForExport(userId, movieId), EXPORT_COLUMNS);
     }
 
     @PostMapping
@@ -83,9 +180,7 @@ public class OrderController {
         }
 
         // 检查是否已购买且未过期
-        Optional<UserMovie> userMovie = userMovieRepository.findByUserIdAndMovieIdAndExpiredAtGreaterThan(
-            orderRequest.getUserId(), orderRequest.getMovieId(), LocalDateTime.now());
-        if (userMovie.isPresent()) {
+        if (entitlementService.hasAccess(orderRequest.getUserId(), orderRequest.getMovieId())) {
             return ApiResponse.error(400, "已购买该电影且未过期");
         }
 
@@ -105,7 +200,19 @@ public class OrderController {
         return ApiResponse.success(savedOrder, "订单创建成功");
     }
 
+    // 批量创建订单，规则与单条创建相同，每条数据单独返回结果
+    @PostMapping("/batch")
+    public ApiResponse<List<BatchItemResult>> batchCreateOrders(@RequestBody List<Order> orders) {
+        String error = batchWriteService.checkSize(orders);
+        if (error != null) {
+            return ApiResponse.error(400, error);
+        }
+        List<BatchItemResult> results = batchWriteService.createOrders(orders);
+        return ApiResponse.success(results, BatchItemResult.summarize(results));
+    }
+
     @PostMapping("/{orderId}/pay")
+    @Transactional
     public ApiResponse<Order> payOrder(@PathVariable Long orderId) {
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (orderOpt.isEmpty()) {
@@ -120,18 +227,25 @@ public class OrderController {
             return ApiResponse.error(400, "订单已取消");
         }
 
+        // 更新订单状态，条件更新保证同一订单只会支付一次
+        LocalDateTime paidAt = LocalDateTime.now();
+        if (orderRepository.markPaid(orderId, paidAt) == 0) {
+            return ApiResponse.error(400, "订单已支付");
+        }
+        order.setStatus("PAID");
+        order.setPaidAt(paidAt);
+
         // 创建用户电影购买记录
         UserMovie userMovie = new UserMovie();
         userMovie.setUserId(order.getUserId());
         userMovie.setMovieId(order.getMovieId());
-        userMovie.setExpiredAt(LocalDateTime.now().plusHours(24));
+        userMovie.setExpiredAt(paidAt.plusHours(24));
         userMovieRepository.save(userMovie);
+        entitlementService.grant(userMovie.getUserId(), userMovie.getMovieId(), userMovie.getExpiredAt());
 
-        // 更新订单状态
-        order.setStatus("PAID");
-        order.setPaidAt(LocalDateTime.now());
-        Order updatedOrder = orderRepository.save(order);
-        return ApiResponse.success(updatedOrder, "支付成功");
+        // 累加到当天的销售汇总
+        salesRollupService.record(paidAt, order.getAmount());
+        return ApiResponse.success(order, "支付成功");
     }
 
     @DeleteMapping("/{id}")
@@ -147,21 +261,17 @@ public class OrderController {
 
     @GetMapping("/check")
     public ApiResponse<Boolean> checkPurchaseStatus(@RequestParam Long userId, @RequestParam Long movieId) {
-        // 先检查电影是否免费
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        if (movieOpt.isEmpty()) {
+        // 每次播放都会调用，电影是否存在、是否免费、是否已购买优先从内存判断，内存中没有时再查库
+        if (!recommendService.contains(movieId) && !movieRepository.existsById(movieId)) {
             return ApiResponse.error(400, "电影不存在");
         }
-        
-        Movie movie = movieOpt.get();
-        if (movie.getIsFree()) {
+        if (entitlementService.isFree(movieId)) {
             return ApiResponse.success(true, "免费电影");
         }
 
         // 检查是否已购买且未过期
-        Optional<UserMovie> userMovie = userMovieRepository.findByUserIdAndMovieIdAndExpiredAtGreaterThan(
-            userId, movieId, LocalDateTime.now());
-        return ApiResponse.success(userMovie.isPresent(), userMovie.isPresent() ? "已购买且未过期" : "未购买或已过期");
+        boolean purchased = entitlementService.hasAccess(userId, movieId);
+        return ApiResponse.success(purchased, purchased ? "已购买且未过期" : "未购买或已过期");
     }
 
     @PutMapping("/{id}")
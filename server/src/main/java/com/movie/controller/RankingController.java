@@ -0,0 +1,47 @@
+package com.movie.controller;
+
+import com.movie.common.ApiResponse;
+import com.movie.dto.MovieSummary;
+import com.movie.service.RankingService;
+import com.movie.service.ReferenceDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/rankings")
+public class RankingController {
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    // 榜单类型：rating 评分榜、popularity 播放榜、newest 最新上架、region 地区评分榜
+    @GetMapping("/{type}")
+    public ApiResponse<List<MovieSummary>> getRanking(
+            @PathVariable String type,
+            @RequestParam(required = false) Long regionId,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (!RankingService.TYPES.contains(type)) {
+            return ApiResponse.error(400, "不支持的榜单类型");
+        }
+        if ("region".equals(type)) {
+            if (regionId == null) {
+                return ApiResponse.error(400, "地区榜必须指定地区");
+            }
+            // 只为已有地区建立榜单，避免任意 regionId 占用缓存和定时刷新
+            boolean exists = referenceDataService.getRegions().getItems().stream()
+                    .anyMatch(region -> region.getId().equals(regionId));
+            if (!exists) {
+                return ApiResponse.error(400, "地区不存在");
+            }
+        }
+        if (limit < 1 || limit > RankingService.MAX_SIZE) {
+            return ApiResponse.error(400, "limit 必须在1-" + RankingService.MAX_SIZE + "之间");
+        }
+        return ApiResponse.success(rankingService.getRanking(type, regionId, limit), "获取成功");
+    }
+}
@@ -1,10 +1,14 @@
 package com.movie.controller;
 
 import com.movie.common.ApiResponse;
+import com.movie.common.Etags;
+import com.movie.dto.VersionedList;
 import com.movie.entity.Region;
 import com.movie.repository.RegionRepository;
+import com.movie.service.ReferenceDataService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -15,22 +19,31 @@ public class RegionController {
     @Autowired
     private RegionRepository regionRepository;
 
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     @GetMapping
-    public ApiResponse<List<Region>> getRegions() {
-        List<Region> regions = regionRepository.findAll();
-        return ApiResponse.success(regions, "获取成功");
+    public ApiResponse<List<Region>> getRegions(ServletWebRequest request) {
+        // 从本地缓存读取，内容未变化时返回 304
+        VersionedList<Region> regions = referenceDataService.getRegions();
+        if (Etags.notModified(request, regions.getVersion())) {
+            return null;
+        }
+        return ApiResponse.success(regions.getItems(), "获取成功");
     }
 
     @GetMapping("/{id}")
     public ApiResponse<Region> getRegion(@PathVariable Long id) {
-        return regionRepository.findById(id)
+        return referenceDataService.getRegions().getItems().stream()
+                .filter(item -> item.getId().equals(id))
+                .findFirst()
                 .map(region -> ApiResponse.success(region, "获取成功"))
                 .orElse(ApiResponse.error(400, "地区不存在"));
     }
 
     @PostMapping
     public ApiResponse<Region> createRegion(@RequestBody Region region) {
-        Region savedRegion = regionRepository.save(region);
+        Region savedRegion = referenceDataService.saveRegion(region);
         return ApiResponse.success(savedRegion, "创建成功");
     }
 
@@ -40,7 +53,7 @@ public class RegionController {
             return ApiResponse.error(400, "地区不存在");
         }
         region.setId(id);
-        Region updatedRegion = regionRepository.save(region);
+        Region updatedRegion = referenceDataService.saveRegion(region);
         return ApiResponse.success(updatedRegion, "更新成功");
     }
 
@@ -49,7 +62,7 @@ public class RegionController {
         if (!regionRepository.existsById(id)) {
             return ApiResponse.error(400, "地区不存在");
         }
-        regionRepository.deleteById(id);
+        referenceDataService.deleteRegion(id);
         return ApiResponse.success(null, "删除成功");
     }
 } 
\ No newline at end of file
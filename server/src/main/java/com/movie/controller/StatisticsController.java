@@ -1,14 +1,19 @@
 package com.movie.controller;
 
 import com.movie.common.ApiResponse;
-import com.movie.entity.Movie;
-import com.movie.entity.MovieInteraction;
-import com.movie.entity.Order;
-import com.movie.entity.User;
+import com.movie.dto.LikeCount;
+import com.movie.dto.MovieSummary;
+import com.movie.dto.PreferenceCount;
 import com.movie.repository.*;
+import com.movie.service.LikeLeaderboardService;
+import com.movie.service.MaintenanceService;
+import com.movie.service.SalesRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,10 +29,16 @@ public class StatisticsController {
     private MovieRepository movieRepository;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private MovieInteractionRepository movieInteractionRepository;
 
     @Autowired
-    private MovieInteractionRepository movieInteractionRepository;
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private LikeLeaderboardService likeLeaderboardService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
 
     @GetMapping("/overview")
     public ApiResponse<Map<String, Object>> getOverviewStatistics() {
@@ -45,94 +56,97 @@ public class StatisticsController {
     }
 
     @GetMapping("/sales")
-    public ApiResponse<List<Map<String, Object>>> getSalesStatistics() {
-        // 获取最近30天的销售数据
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(thirtyDaysAgo);
-        
-        // 按日期分组统计
-        Map<String, Double> dailySales = orders.stream()
-            .collect(Collectors.groupingBy(
-                order -> order.getCreatedAt().toLocalDate().toString(),
-                Collectors.summingDouble(Order::getAmount)
-            ));
+    public ApiResponse<List<Map<String, Object>>> getSalesStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        if (!SalesRollupService.GRANULARITIES.contains(granularity)) {
+            return ApiResponse.error(400, "统计粒度只支持 day、week、month");
+        }
         
-        // 构建返回数据
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map.Entry<String, Double> entry : dailySales.entrySet()) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", entry.getKey());
-            dayData.put("amount", entry.getValue());
-            result.add(dayData);
+        // 默认统计到今天
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        if (from == null) {
+            from = salesRollupService.defaultFrom(to, granularity);
+        }
+        if (from.isAfter(to)) {
+            return ApiResponse.error(400, "开始日期不能晚于结束日期");
         }
         
-        return ApiResponse.success(result, "获取成功");
+        // 从按天预聚合的汇总表读取，不再加载订单明细
+        return ApiResponse.success(salesRollupService.getSales(from, to, granularity), "获取成功");
+    }
+
+    // 按订单重新计算销售汇总，不传日期时全量重建
+    @PostMapping("/sales/rebuild")
+    public ApiResponse<Integer> rebuildSalesStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from == null || to == null) {
+            return ApiResponse.success(salesRollupService.rebuildAll(), "重建成功");
+        }
+        if (from.isAfter(to)) {
+            return ApiResponse.error(400, "开始日期不能晚于结束日期");
+        }
+        return ApiResponse.success(salesRollupService.rebuild(from, to), "重建成功");
     }
 
     @GetMapping("/movie-interactions")
-    public ApiResponse<List<Map<String, Object>>> getMovieInteractionStatistics() {
-        // 获取所有电影的互动数据
-        List<Movie> movies = movieRepository.findAll();
-        List<MovieInteraction> interactions = movieInteractionRepository.findAll();
+    public ApiResponse<List<Map<String, Object>>> getMovieInteractionStatistics(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer days) {
+        if (limit < 1 || limit > 100) {
+            return ApiResponse.error(400, "limit 必须在1-100之间");
+        }
+        if (days != null && days < 1) {
+            return ApiResponse.error(400, "days 必须大于0");
+        }
         
-        // 统计每部电影的点赞数和播放次数
-        Map<Long, Long> likesCount = interactions.stream()
-            .filter(i -> i.getLiked() != null && i.getLiked())
-            .collect(Collectors.groupingBy(MovieInteraction::getMovieId, Collectors.counting()));
+        // 不限时间时直接取内存排行榜；指定天数时按点赞时间在数据库中统计
+        List<LikeCount> top = days == null
+            ? likeLeaderboardService.top(limit)
+            : movieInteractionRepository.findTopLikedSince(
+                LocalDateTime.now().minusDays(days), PageRequest.of(0, limit));
+        
+        // 只查询上榜电影的标题
+        Map<Long, String> titles = new HashMap<>();
+        if (!top.isEmpty()) {
+            List<Long> movieIds = top.stream().map(LikeCount::getMovieId).collect(Collectors.toList());
+            for (MovieSummary movie : movieRepository.findSummariesByIdIn(movieIds)) {
+                titles.put(movie.getId(), movie.getTitle());
+            }
+        }
         
         // 构建返回数据
-        List<Map<String, Object>> result = movies.stream()
-            .map(movie -> {
-                Map<String, Object> movieData = new HashMap<>();
-                movieData.put("movieId", movie.getId());
-                movieData.put("title", movie.getTitle());
-                movieData.put("likes", likesCount.getOrDefault(movie.getId(), 0L));
-                return movieData;
-            })
-            .sorted((m1, m2) -> Long.compare((Long)m2.get("likes"), (Long)m1.get("likes")))
-            .limit(10)
-            .collect(Collectors.toList());
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (LikeCount count : top) {
+            if (!titles.containsKey(count.getMovieId())) {
+                continue;
+            }
+            Map<String, Object> movieData = new HashMap<>();
+            movieData.put("movieId", count.getMovieId());
+            movieData.put("title", titles.get(count.getMovieId()));
+            movieData.put("likes", count.getLikes());
+            result.add(movieData);
+        }
         
         return ApiResponse.success(result, "获取成功");
     }
 
     @GetMapping("/user-preferences")
     public ApiResponse<List<Map<String, Object>>> getUserPreferenceStatistics() {
-        // 获取所有用户的观影记录和评分
-        List<MovieInteraction> interactions = movieInteractionRepository.findAll();
-        List<Movie> movies = movieRepository.findAll();
-        List<User> users = userRepository.findAll();
-        
-        // 按职业和电影类型统计偏好
-        Map<String, Map<String, Integer>> jobPreferences = new HashMap<>();
-        
-        for (MovieInteraction interaction : interactions) {
-            Optional<User> userOpt = users.stream()
-                .filter(u -> u.getId().equals(interaction.getUserId()))
-                .findFirst();
-            Optional<Movie> movieOpt = movies.stream()
-                .filter(m -> m.getId().equals(interaction.getMovieId()))
-                .findFirst();
-                
-            if (userOpt.isPresent() && movieOpt.isPresent()) {
-                User user = userOpt.get();
-                Movie movie = movieOpt.get();
-                String profession = user.getProfession();
-                
-                if (profession != null && movie.getCategories() != null) {
-                    String[] categories = movie.getCategories().split(",");
-                    
-                    jobPreferences.computeIfAbsent(profession, k -> new HashMap<>());
-                    for (String category : categories) {
-                        jobPreferences.get(profession).merge(category.trim(), 1, Integer::sum);
-                    }
-                }
-            }
+        // 按职业和电影类型统计偏好，分组聚合由数据库完成
+        Map<String, Map<String, Long>> jobPreferences = new HashMap<>();
+        for (PreferenceCount count : movieInteractionRepository.countByProfessionAndCategory()) {
+            jobPreferences.computeIfAbsent(count.getProfession(), k -> new HashMap<>())
+                .put(String.valueOf(count.getCategoryId()), count.getCount());
         }
         
         // 构建返回数据
         List<Map<String, Object>> result = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Integer>> entry : jobPreferences.entrySet()) {
+        for (Map.Entry<String, Map<String, Long>> entry : jobPreferences.entrySet()) {
             Map<String, Object> jobData = new HashMap<>();
             jobData.put("job", entry.getKey());
             jobData.put("preferences", entry.getValue());
@@ -141,4 +155,10 @@ public class StatisticsController {
         
         return ApiResponse.success(result, "获取成功");
     }
-} 
\ No newline at end of file
+
+    // 定时清理任务最近一次的处理结果
+    @GetMapping("/maintenance")
+    public ApiResponse<Map<String, Object>> getMaintenanceStatistics() {
+        return ApiResponse.success(maintenanceService.getLastRun(), "获取成功");
+    }
+}
@@ -0,0 +1,42 @@
+package com.movie.controller;
+
+import com.movie.common.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/system")
+public class SystemController {
+
+    // Hibernate 通过该日志输出执行的 SQL，与 show-sql 不同，可以在运行时开关
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    @GetMapping("/sql-logging")
+    public ApiResponse<Map<String, Object>> getSqlLogging() {
+        return ApiResponse.success(sqlLoggingState(), "获取成功");
+    }
+
+    @PutMapping("/sql-logging")
+    public ApiResponse<Map<String, Object>> setSqlLogging(@RequestParam boolean enabled) {
+        loggingSystem.setLogLevel(SQL_LOGGER, enabled ? LogLevel.DEBUG : LogLevel.OFF);
+        return ApiResponse.success(sqlLoggingState(), "设置成功");
+    }
+
+    private Map<String, Object> sqlLoggingState() {
+        LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(SQL_LOGGER);
+        LogLevel level = configuration != null ? configuration.getEffectiveLevel() : LogLevel.OFF;
+        Map<String, Object> state = new HashMap<>();
+        state.put("enabled", level.ordinal() <= LogLevel.DEBUG.ordinal());
+        state.put("level", level.name());
+        return state;
+    }
+}
@@ -0,0 +1,48 @@
+package com.movie.dto;
+
+import java.util.List;
+
+// 批量接口中单条数据的处理结果，index 为该条在请求数组中的下标，id 为新建或命中的记录ID（拿不到时为 null）
+public class BatchItemResult {
+    private final int index;
+    private final boolean success;
+    private final Long id;
+    private final String message;
+
+    private BatchItemResult(int index, boolean success, Long id, String message) {
+        this.index = index;
+        this.success = success;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BatchItemResult success(int index, Long id, String message) {
+        return new BatchItemResult(index, true, id, message);
+    }
+
+    public static BatchItemResult error(int index, String message) {
+        return new BatchItemResult(index, false, null, message);
+    }
+
+    // 作为批量接口响应的 message
+    public static String summarize(List<BatchItemResult> results) {
+        long succeeded = results.stream().filter(BatchItemResult::isSuccess).count();
+        return "成功" + succeeded + "条，失败" + (results.size() - succeeded) + "条";
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
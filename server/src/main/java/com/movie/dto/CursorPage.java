@@ -0,0 +1,38 @@
+package com.movie.dto;
+
+import java.util.List;
+
+// 游标分页结果，不做 COUNT 查询；total 为按统计信息估算的总数，未请求时为 null
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+    private final Long total;
+
+    public CursorPage(List<T> content, String nextCursor, boolean hasNext) {
+        this(content, nextCursor, hasNext, null);
+    }
+
+    public CursorPage(List<T> content, String nextCursor, boolean hasNext, Long total) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+        this.total = total;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+}
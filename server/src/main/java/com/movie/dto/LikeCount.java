@@ -0,0 +1,20 @@
+package com.movie.dto;
+
+// 电影的点赞数
+public class LikeCount {
+    private final Long movieId;
+    private final long likes;
+
+    public LikeCount(Long movieId, Long likes) {
+        this.movieId = movieId;
+        this.likes = likes != null ? likes : 0;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+}
@@ -0,0 +1,20 @@
+package com.movie.dto;
+
+// 文件存储中的媒体引用：内容哈希 + MIME 类型
+public class MediaRef {
+    private final String hash;
+    private final String contentType;
+
+    public MediaRef(String hash, String contentType) {
+        this.hash = hash;
+        this.contentType = contentType;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,48 @@
+package com.movie.dto;
+
+import com.movie.entity.Movie;
+
+import java.util.Set;
+
+// 推荐索引中的电影特征，只包含筛选和打分需要的字段，不含封面
+public class MovieIndexEntry {
+    private final Long id;
+    private final Set<Long> categoryIds;
+    private final Long region;
+    private final Integer year;
+    private final Double price;
+    private final Double rating;
+
+    public MovieIndexEntry(Long id, String categories, Long region, Integer year, Double price, Double rating) {
+        this.id = id;
+        this.categoryIds = Movie.parseCategoryIds(categories);
+        this.region = region;
+        this.year = year;
+        this.price = price;
+        this.rating = rating;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public Long getRegion() {
+        return region;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+}
@@ -0,0 +1,108 @@
+package com.movie.dto;
+
+import com.movie.entity.Movie;
+
+// 电影列表使用的精简数据，不包含封面，封面通过 /movies/{id}/cover?v={coverHash} 单独获取
+public class MovieSummary {
+    private final Long id;
+    private final String title;
+    private final String categories;
+    private final Long region;
+    private final Integer year;
+    private final Integer duration;
+    private final Double rating;
+    private final Double score;
+    private final Long ratingCount;
+    private final Boolean isFree;
+    private final Double price;
+    private final String actors;
+    private final String trailerUrl;
+    private final Integer playCount;
+    private final String coverHash;
+
+    public MovieSummary(Long id, String title, String categories, Long region, Integer year, Integer duration,
+                        Double rating, Double score, Long ratingCount, Boolean isFree, Double price, String actors, String trailerUrl,
+                        Integer playCount, String coverHash) {
+        this.id = id;
+        this.title = title;
+        this.categories = categories;
+        this.region = region;
+        this.year = year;
+        this.duration = duration;
+        this.rating = rating;
+        this.score = score;
+        this.ratingCount = ratingCount;
+        this.isFree = isFree;
+        this.price = price;
+        this.actors = actors;
+        this.trailerUrl = trailerUrl;
+        this.playCount = playCount;
+        this.coverHash = coverHash;
+    }
+
+    public static MovieSummary of(Movie movie) {
+        return new MovieSummary(movie.getId(), movie.getTitle(), movie.getCategories(), movie.getRegion(),
+                movie.getYear(), movie.getDuration(), movie.getRating(), movie.getScore(), movie.getRatingCount(), movie.getIsFree(), movie.getPrice(),
+                movie.getActors(), movie.getTrailerUrl(), movie.getPlayCount(), movie.getCoverHash());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategories() {
+        return categories;
+    }
+
+    public Long getRegion() {
+        return region;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public Integer getDuration() {
+        return duration;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public Boolean getIsFree() {
+        return isFree;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getActors() {
+        return actors;
+    }
+
+    public String getTrailerUrl() {
+        return trailerUrl;
+    }
+
+    public Integer getPlayCount() {
+        return playCount;
+    }
+
+    public String getCoverHash() {
+        return coverHash;
+    }
+}
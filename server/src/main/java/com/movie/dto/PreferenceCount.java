@@ -0,0 +1,26 @@
+package com.movie.dto;
+
+// 某职业在某电影类型上的互动次数
+public class PreferenceCount {
+    private final String profession;
+    private final Long categoryId;
+    private final long count;
+
+    public PreferenceCount(String profession, Long categoryId, long count) {
+        this.profession = profession;
+        this.categoryId = categoryId;
+        this.count = count;
+    }
+
+    public String getProfession() {
+        return profession;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package com.movie.dto;
+
+import java.util.List;
+
+// 缓存中的列表及其内容版本，版本用作 HTTP ETag
+public class VersionedList<T> {
+    private final List<T> items;
+    private final String version;
+
+    public VersionedList(List<T> items, String version) {
+        this.items = List.copyOf(items);
+        this.version = version;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
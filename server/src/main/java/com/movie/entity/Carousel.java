@@ -16,10 +16,17 @@ public class Carousel {
     @Column(nullable = false)
     private String title;
 
+    // 仅用于接收上传的图片，保存时转存到文件存储后清空
     @Lob
-    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGTEXT")
     private String imageBase64;
 
+    @Column(name = "image_hash", length = 64)
+    private String imageHash; // 图片文件的 SHA-256
+
+    @Column(name = "image_content_type", length = 100)
+    private String imageContentType;
+
     private String link;
 
     @Column(nullable = false)
@@ -20,9 +20,6 @@ public class Collection {
     @Column(name = "name", nullable = false)
     private String name;
 
-    @Column(name = "movie_ids", nullable = false)
-    private String movieIds;
-
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -54,12 +51,4 @@ public class Collection {
     public void setName(String name) {
         this.name = name;
     }
-
-    public String getMovieIds() {
-        return movieIds;
-    }
-
-    public void setMovieIds(String movieIds) {
-        this.movieIds = movieIds;
-    }
 } 
\ No newline at end of file
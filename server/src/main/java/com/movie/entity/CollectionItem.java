@@ -0,0 +1,68 @@
+package com.movie.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "collection_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_collection_items_collection_movie", columnNames = {"collection_id", "movie_id"})
+}, indexes = {
+    @Index(name = "idx_collection_items_movie", columnList = "movie_id, collection_id")
+})
+public class CollectionItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "collection_id", nullable = false)
+    private Long collectionId;
+
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+
+    @Column(name = "added_at")
+    @CreationTimestamp
+    private LocalDateTime addedAt;
+
+    public CollectionItem() {
+    }
+
+    public CollectionItem(Long collectionId, Long movieId) {
+        this.collectionId = collectionId;
+        this.movieId = movieId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCollectionId() {
+        return collectionId;
+    }
+
+    public void setCollectionId(Long collectionId) {
+        this.collectionId = collectionId;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+
+    public LocalDateTime getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(LocalDateTime addedAt) {
+        this.addedAt = addedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.movie.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// 按支付日期预聚合的销售额，由支付订单时增量维护
+@Entity
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+    @Id
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount = 0.0;
+
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public void setSaleDate(LocalDate saleDate) {
+        this.saleDate = saleDate;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+}
@@ -6,7 +6,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    @Index(name = "idx_messages_user_created_at", columnList = "user_id, created_at"),
+    @Index(name = "idx_messages_created_at", columnList = "created_at")
+})
 public class Message {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,11 +1,22 @@
 package com.movie.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Data
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+    @Index(name = "idx_movies_score", columnList = "score, id"),
+    @Index(name = "idx_movies_play_count", columnList = "play_count, id"),
+    @Index(name = "idx_movies_region_score", columnList = "region_id, score, id")
+})
 public class Movie {
     
     @Id
@@ -15,12 +26,29 @@ public class Movie {
     @Column(nullable = false)
     private String title;
 
+    // 仅用于接收上传的封面，保存时转存到文件存储后清空
     @Lob
-    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGTEXT")
     private String coverBase64;
 
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash; // 封面文件的 SHA-256
+
+    @Column(name = "cover_content_type", length = 100)
+    private String coverContentType;
+
     @Column(name = "categories")
-    private String categories;
+    private String categories; // 分类ID，用逗号分隔，仅用于展示，查询使用 movie_categories 表
+
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(
+        name = "movie_categories",
+        joinColumns = @JoinColumn(name = "movie_id"),
+        indexes = @Index(name = "idx_movie_categories_category", columnList = "category_id, movie_id")
+    )
+    @Column(name = "category_id", nullable = false)
+    private Set<Long> categoryIds = new HashSet<>();
 
     @Column(name = "region_id")
     private Long region;
@@ -32,7 +60,18 @@ public class Movie {
     private Integer duration; // 电影时长（分钟）
 
     @Column(nullable = false)
-    private Double rating = 0.0;
+    private Double rating = 0.0; // 管理员录入的基础评分（10分制）
+
+    // 用户评分（1-5分）的累计和与人数，随互动评分增量维护
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @Column(nullable = false, updatable = false)
+    private Long ratingCount = 0L;
+
+    // 贝叶斯加权评分（10分制）：以基础评分为先验，用户评分越多越接近用户平均分
+    @Column(nullable = false, updatable = false)
+    private Double score = 0.0;
 
     @Column(nullable = false)
     private Boolean isFree = false;
@@ -45,8 +84,41 @@ public class Movie {
     @Column(columnDefinition = "TEXT")
     private String trailerUrl; // 预告片链接
 
-    @Column(nullable = false)
-    private Integer playCount = 0; // 播放次数
+    @Column(nullable = false, updatable = false)
+    private Integer playCount = 0; // 播放次数，只由 PlayCountService 累加
+
+    @Column(nullable = false, updatable = false)
+    private Long likeCount = 0L; // 点赞数，随点赞状态变化增减
+
+    // 新电影还没有用户评分，加权评分等于基础评分
+    @PrePersist
+    protected void prePersist() {
+        ratingSum = 0L;
+        ratingCount = 0L;
+        score = rating;
+        syncCategories();
+    }
+
+    // 保存前根据分类关联表生成规范的逗号分隔字符串
+    @PreUpdate
+    protected void syncCategories() {
+        categories = categoryIds.stream()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    // 解析逗号分隔的分类ID，忽略空值和非法值
+    public static Set<Long> parseCategoryIds(String categories) {
+        if (categories == null || categories.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(categories.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty() && s.chars().allMatch(Character::isDigit))
+                .map(Long::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
 
     public Long getId() {
         return id;
@@ -72,12 +144,38 @@ public class Movie {
         this.coverBase64 = coverBase64;
     }
 
+    public String getCoverHash() {
+        return coverHash;
+    }
+
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
+    }
+
+    public String getCoverContentType() {
+        return coverContentType;
+    }
+
+    public void setCoverContentType(String coverContentType) {
+        this.coverContentType = coverContentType;
+    }
+
     public String getCategories() {
         return categories;
     }
 
     public void setCategories(String categories) {
         this.categories = categories;
+        this.categoryIds.clear();
+        this.categoryIds.addAll(parseCategoryIds(categories));
+    }
+
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public void setCategoryIds(Set<Long> categoryIds) {
+        this.categoryIds = categoryIds;
     }
 
     public Long getRegion() {
@@ -151,4 +249,36 @@ public class Movie {
     public void setPlayCount(Integer playCount) {
         this.playCount = playCount;
     }
-} 
\ No newline at end of file
+
+    public Long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(Long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
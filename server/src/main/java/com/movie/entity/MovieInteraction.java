@@ -13,6 +13,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "movie_interactions", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "movie_id"})
+}, indexes = {
+    @Index(name = "idx_movie_interactions_liked_at", columnList = "liked_at, movie_id"),
+    @Index(name = "idx_movie_interactions_user_created_at", columnList = "user_id, created_at"),
+    @Index(name = "idx_movie_interactions_movie_created_at", columnList = "movie_id, created_at"),
+    @Index(name = "idx_movie_interactions_created_at", columnList = "created_at")
 })
 @Data
 @Builder
@@ -29,19 +34,24 @@ public class MovieInteraction {
     @Column(name = "movie_id", nullable = false)
     private Long movieId;
 
-    @Column(name = "liked")
+    // 点赞状态只在插入时写入，之后通过 updateLiked 条件更新，保证点赞数准确
+    @Column(name = "liked", updatable = false)
     private Boolean liked = false;
 
+    // 点赞时间，取消点赞时清空，用于按时间窗口统计
+    @Column(name = "liked_at", updatable = false)
+    private LocalDateTime likedAt;
+
     @Column(name = "rating")
     private Integer rating;
 
     @Column(name = "comment", length = 1000)
     private String comment;
 
-    @Column(name = "play_count")
+    @Column(name = "play_count", updatable = false)
     private Integer playCount = 0;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -81,6 +91,14 @@ public class MovieInteraction {
         this.liked = liked;
     }
 
+    public LocalDateTime getLikedAt() {
+        return likedAt;
+    }
+
+    public void setLikedAt(LocalDateTime likedAt) {
+        this.likedAt = likedAt;
+    }
+
     public Integer getRating() {
         return rating;
     }
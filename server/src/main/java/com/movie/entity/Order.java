@@ -5,7 +5,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
+    @Index(name = "idx_orders_user_movie_status", columnList = "user_id, movie_id, status"),
+    @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at"),
+    @Index(name = "idx_orders_movie_created_at", columnList = "movie_id, created_at"),
+    @Index(name = "idx_orders_created_at", columnList = "created_at")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,7 +29,7 @@ public class Order {
     @Column(name = "status", nullable = false)
     private String status; // PENDING, PAID, CANCELLED
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -5,7 +5,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_movies")
+@Table(name = "user_movies", indexes = {
+    @Index(name = "idx_user_movies_expired_at", columnList = "expired_at"),
+    @Index(name = "idx_user_movies_user_movie_expired_at", columnList = "user_id, movie_id, expired_at"),
+    @Index(name = "idx_user_movies_movie_expired_at", columnList = "movie_id, expired_at")
+})
 public class UserMovie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,7 +1,29 @@
 package com.movie.repository;
 
+import com.movie.dto.MediaRef;
 import com.movie.entity.Carousel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CarouselRepository extends JpaRepository<Carousel, Long> {
-} 
\ No newline at end of file
+    @Query("SELECT new com.movie.dto.MediaRef(c.imageHash, c.imageContentType) FROM Carousel c WHERE c.id = :id")
+    Optional<MediaRef> findImageRefById(@Param("id") Long id);
+
+    // 以下用于把旧的 base64 图片迁移到文件存储
+    @Query("SELECT c.id FROM Carousel c WHERE c.imageHash IS NULL AND c.imageBase64 IS NOT NULL")
+    List<Long> findIdsWithLegacyImage();
+
+    @Query("SELECT c.imageBase64 FROM Carousel c WHERE c.id = :id")
+    Optional<String> findImageById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Carousel c SET c.imageHash = :hash, c.imageContentType = :contentType, c.imageBase64 = NULL WHERE c.id = :id")
+    int updateImage(@Param("id") Long id, @Param("hash") String hash, @Param("contentType") String contentType);
+}
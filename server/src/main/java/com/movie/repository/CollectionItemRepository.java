@@ -0,0 +1,46 @@
+package com.movie.repository;
+
+import com.movie.entity.CollectionItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CollectionItemRepository extends JpaRepository<CollectionItem, Long> {
+    @Query("SELECT COUNT(i) > 0 FROM CollectionItem i JOIN Collection c ON c.id = i.collectionId " +
+           "WHERE c.userId = :userId AND i.movieId = :movieId")
+    boolean existsByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") Long movieId);
+
+    @Query("SELECT DISTINCT i.movieId FROM CollectionItem i JOIN Collection c ON c.id = i.collectionId " +
+           "WHERE c.userId = :userId AND i.movieId IN :movieIds")
+    List<Long> findCollectedMovieIds(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    // 依赖 (collection_id, movie_id) 唯一索引去重，已存在时返回 0
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO collection_items (collection_id, movie_id, added_at) " +
+                   "VALUES (:collectionId, :movieId, NOW(6))", nativeQuery = true)
+    int insertIgnore(@Param("collectionId") Long collectionId, @Param("movieId") Long movieId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CollectionItem i WHERE i.collectionId = :collectionId AND i.movieId = :movieId")
+    int deleteByCollectionIdAndMovieId(@Param("collectionId") Long collectionId, @Param("movieId") Long movieId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CollectionItem i WHERE i.movieId = :movieId AND i.collectionId IN " +
+           "(SELECT c.id FROM Collection c WHERE c.userId = :userId)")
+    int deleteByUserIdAndMovieId(@Param("userId") Long userId, @Param("movieId") Long movieId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CollectionItem i WHERE i.collectionId = :collectionId")
+    int deleteByCollectionId(@Param("collectionId") Long collectionId);
+}
@@ -0,0 +1,39 @@
+package com.movie.repository;
+
+import com.movie.entity.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, LocalDate> {
+    List<DailySalesRollup> findBySaleDateBetweenOrderBySaleDate(LocalDate from, LocalDate to);
+
+    // 当天第一笔订单插入新行，之后在原行上累加
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_sales_rollup (sale_date, order_count, amount) VALUES (:saleDate, 1, :amount) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + 1, amount = amount + :amount", nativeQuery = true)
+    int addSale(@Param("saleDate") LocalDate saleDate, @Param("amount") Double amount);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DailySalesRollup r WHERE r.saleDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 从已支付订单重新汇总 [from, to) 时间段
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_sales_rollup (sale_date, order_count, amount) " +
+                   "SELECT CAST(paid_at AS DATE), COUNT(*), SUM(amount) FROM orders " +
+                   "WHERE status = 'PAID' AND paid_at >= :from AND paid_at < :to " +
+                   "GROUP BY CAST(paid_at AS DATE)", nativeQuery = true)
+    int rebuildBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
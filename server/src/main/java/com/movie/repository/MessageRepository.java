@@ -1,10 +1,20 @@
 package com.movie.repository;
 
 import com.movie.entity.Message;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Message> findAllByOrderByCreatedAtDesc();
+
+    // 导出用的流式查询，需在事务内遍历。fetch size 为 Integer.MIN_VALUE 时 Connector/J 逐行读取结果，
+    // 不把整个结果集缓存在内存中；遍历结束前这个连接上不能执行其他语句
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Message> streamAllByOrderByCreatedAtDesc();
 } 
\ No newline at end of file
@@ -1,14 +1,69 @@
 package com.movie.repository;
 
+import com.movie.dto.LikeCount;
+import com.movie.dto.PreferenceCount;
 import com.movie.entity.MovieInteraction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface MovieInteractionRepository extends JpaRepository<MovieInteraction, Long>, JpaSpecificationExecutor<MovieInteraction> {
     Optional<MovieInteraction> findByUserIdAndMovieId(Long userId, Long movieId);
     List<MovieInteraction> findByUserId(Long userId);
-} 
\ No newline at end of file
+
+    boolean existsByUserIdAndMovieId(Long userId, Long movieId);
+
+    // 先插入空记录再加锁读取；对不存在的行加锁会锁住索引间隙，并发插入新互动时互相死锁
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO movie_interactions (user_id, movie_id, liked, play_count, created_at, updated_at) " +
+                   "VALUES (:userId, :movieId, false, 0, NOW(), NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("movieId") Long movieId);
+
+    // 修改互动前加行锁，保证评分、点赞的增量按真实的旧值计算
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MovieInteraction> findWithLockByUserIdAndMovieId(Long userId, Long movieId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MovieInteraction> findWithLockById(Long id);
+
+    // 按职业和电影类型分组统计互动次数，在数据库中完成聚合
+    @Query("SELECT new com.movie.dto.PreferenceCount(u.profession, c, COUNT(i)) " +
+           "FROM MovieInteraction i JOIN User u ON u.id = i.userId JOIN Movie m ON m.id = i.movieId " +
+           "JOIN m.categoryIds c WHERE u.profession IS NOT NULL GROUP BY u.profession, c")
+    List<PreferenceCount> countByProfessionAndCategory();
+
+    // 只有点赞状态确实改变（含 NULL 改为 false）时返回 1；调用方需先锁住该行，按旧值计算点赞数增量
+    @Modifying
+    @Transactional
+    @Query("UPDATE MovieInteraction i SET i.liked = :liked, i.likedAt = :likedAt " +
+           "WHERE i.id = :id AND (i.liked IS NULL OR i.liked <> :liked)")
+    int updateLiked(@Param("id") Long id, @Param("liked") Boolean liked, @Param("likedAt") LocalDateTime likedAt);
+
+    // 时间窗口内的点赞排行，走 (liked_at, movie_id) 索引
+    @Query("SELECT new com.movie.dto.LikeCount(i.movieId, COUNT(i)) FROM MovieInteraction i " +
+           "WHERE i.liked = true AND i.likedAt >= :since GROUP BY i.movieId ORDER BY COUNT(i) DESC, i.movieId")
+    List<LikeCount> findTopLikedSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    // 导出用的流式查询，按用户、电影可选筛选
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT i FROM MovieInteraction i WHERE (:userId IS NULL OR i.userId = :userId) " +
+           "AND (:movieId IS NULL OR i.movieId = :movieId) ORDER BY i.createdAt DESC, i.id DESC")
+    Stream<MovieInteraction> streamForExport(@Param("userId") Long userId, @Param("movieId") Long movieId);
+}
@@ -1,7 +1,88 @@
 package com.movie.repository;
 
+import com.movie.dto.LikeCount;
+import com.movie.dto.MediaRef;
+import com.movie.dto.MovieIndexEntry;
+import com.movie.dto.MovieSummary;
 import com.movie.entity.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface MovieRepository extends JpaRepository<Movie, Long> {
-} 
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MovieRepository extends JpaRepository<Movie, Long>, JpaSpecificationExecutor<Movie> {
+    @Query("SELECT new com.movie.dto.MovieIndexEntry(m.id, m.categories, m.region, m.year, m.price, m.rating) FROM Movie m")
+    List<MovieIndexEntry> findAllIndexEntries();
+
+    @Query("SELECT new com.movie.dto.MovieSummary(m.id, m.title, m.categories, m.region, m.year, m.duration, " +
+           "m.rating, m.score, m.ratingCount, m.isFree, m.price, m.actors, m.trailerUrl, m.playCount, m.coverHash) FROM Movie m")
+    List<MovieSummary> findAllSummaries();
+
+    // 榜单查询：排序字段上有索引，按 pageable 只读取前 N 条
+    @Query("SELECT new com.movie.dto.MovieSummary(m.id, m.title, m.categories, m.region, m.year, m.duration, " +
+           "m.rating, m.score, m.ratingCount, m.isFree, m.price, m.actors, m.trailerUrl, m.playCount, m.coverHash) FROM Movie m")
+    List<MovieSummary> findSummaries(Pageable pageable);
+
+    @Query("SELECT new com.movie.dto.MovieSummary(m.id, m.title, m.categories, m.region, m.year, m.duration, " +
+           "m.rating, m.score, m.ratingCount, m.isFree, m.price, m.actors, m.trailerUrl, m.playCount, m.coverHash) FROM Movie m WHERE m.region = :region")
+    List<MovieSummary> findSummariesByRegion(@Param("region") Long region, Pageable pageable);
+
+    @Query("SELECT new com.movie.dto.MovieSummary(m.id, m.title, m.categories, m.region, m.year, m.duration, " +
+           "m.rating, m.score, m.ratingCount, m.isFree, m.price, m.actors, m.trailerUrl, m.playCount, m.coverHash) FROM Movie m WHERE m.id IN :ids")
+    List<MovieSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.movie.dto.MovieSummary(m.id, m.title, m.categories, m.region, m.year, m.duration, " +
+           "m.rating, m.score, m.ratingCount, m.isFree, m.price, m.actors, m.trailerUrl, m.playCount, m.coverHash) " +
+           "FROM CollectionItem i JOIN Movie m ON m.id = i.movieId WHERE i.collectionId = :collectionId ORDER BY i.addedAt")
+    List<MovieSummary> findSummariesByCollectionId(@Param("collectionId") Long collectionId);
+
+    @Query("SELECT new com.movie.dto.MediaRef(m.coverHash, m.coverContentType) FROM Movie m WHERE m.id = :id")
+    Optional<MediaRef> findCoverRefById(@Param("id") Long id);
+
+    @Query("SELECT m.id FROM Movie m WHERE m.isFree = true")
+    List<Long> findFreeMovieIds();
+
+    @Query("SELECT new com.movie.dto.LikeCount(m.id, m.likeCount) FROM Movie m WHERE m.likeCount > 0")
+    List<LikeCount> findLikeCounts();
+
+    // 评分增量更新；score 写在最前面，保证它按更新前的 sum/count 计算（MySQL 按书写顺序依次赋值）
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE movies SET score = (rating * :weight + (rating_sum + :sumDelta) * 2.0) / " +
+                   "(:weight + rating_count + :countDelta), " +
+                   "rating_sum = rating_sum + :sumDelta, rating_count = rating_count + :countDelta WHERE id = :id",
+           nativeQuery = true)
+    int addRating(@Param("id") Long id, @Param("sumDelta") long sumDelta, @Param("countDelta") long countDelta,
+                  @Param("weight") double weight);
+
+    // 管理员修改基础评分后重新计算加权评分
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE movies SET score = (rating * :weight + rating_sum * 2.0) / (:weight + rating_count) WHERE id = :id",
+           nativeQuery = true)
+    int refreshScore(@Param("id") Long id, @Param("weight") double weight);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Movie m SET m.likeCount = m.likeCount + :delta WHERE m.id = :id")
+    int addLikes(@Param("id") Long id, @Param("delta") long delta);
+
+    // 以下用于把旧的 base64 封面迁移到文件存储
+    @Query("SELECT m.id FROM Movie m WHERE m.coverHash IS NULL AND m.coverBase64 IS NOT NULL")
+    List<Long> findIdsWithLegacyCover();
+
+    @Query("SELECT m.coverBase64 FROM Movie m WHERE m.id = :id")
+    Optional<String> findCoverById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Movie m SET m.coverHash = :hash, m.coverContentType = :contentType, m.coverBase64 = NULL WHERE m.id = :id")
+    int updateCover(@Param("id") Long id, @Param("hash") String hash, @Param("contentType") String contentType);
+}
@@ -1,15 +1,51 @@
 package com.movie.repository;
 
 import com.movie.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findByCreatedAtAfter(LocalDateTime date);
     Optional<Order> findByUserIdAndMovieIdAndStatus(Long userId, Long movieId, String status);
-} 
\ No newline at end of file
+
+    @Query("SELECT MIN(o.paidAt) FROM Order o WHERE o.status = 'PAID'")
+    Optional<LocalDateTime> findFirstPaidAt();
+
+    // 只有待支付的订单才能改为已支付，并发重复支付时只有一个请求返回 1
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Order o SET o.status = 'PAID', o.paidAt = :paidAt WHERE o.id = :id AND o.status = 'PENDING'")
+    int markPaid(@Param("id") Long id, @Param("paidAt") LocalDateTime paidAt);
+
+    // 清理任务分批读取超时未支付订单的ID
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :cutoff ORDER BY o.id")
+    List<Long> findStalePendingIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // 仍为待支付才取消，与 markPaid 互斥
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.status = 'CANCELLED' WHERE o.id IN :ids AND o.status = 'PENDING'")
+    int cancelPending(@Param("ids") Collection<Long> ids);
+
+    // 导出用的流式查询，按用户、电影可选筛选
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM Order o WHERE (:userId IS NULL OR o.userId = :userId) " +
+           "AND (:movieId IS NULL OR o.movieId = :movieId) ORDER BY o.createdAt DESC, o.id DESC")
+    Stream<Order> streamForExport(@Param("userId") Long userId, @Param("movieId") Long movieId);
+}
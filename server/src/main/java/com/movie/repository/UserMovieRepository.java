@@ -1,7 +1,10 @@
 package com.movie.repository;
 
 import com.movie.entity.UserMovie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -9,10 +12,14 @@ import java.util.Optional;
 
 @Repository
 public interface UserMovieRepository extends JpaRepository<UserMovie, Long> {
-    Optional<UserMovie> findByUserIdAndMovieIdAndExpiredAtGreaterThan(Long userId, Long movieId, LocalDateTime now);
+    Optional<UserMovie> findFirstByUserIdAndMovieIdAndExpiredAtGreaterThanOrderByExpiredAtDesc(Long userId, Long movieId, LocalDateTime now);
     List<UserMovie> findByUserId(Long userId);
     List<UserMovie> findByUserIdAndExpiredAtGreaterThan(Long userId, LocalDateTime now);
     List<UserMovie> findByMovieIdAndExpiredAtGreaterThan(Long movieId, LocalDateTime now);
     List<UserMovie> findByUserIdAndMovieId(Long userId, Long movieId);
     void deleteByExpiredAtLessThan(LocalDateTime now);
+
+    // 清理任务分批读取过期记录的ID
+    @Query("SELECT u.id FROM UserMovie u WHERE u.expiredAt < :cutoff ORDER BY u.id")
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,451 @@
+package com.movie.service;
+
+import com.movie.dto.BatchItemResult;
+import com.movie.entity.Movie;
+import com.movie.entity.MovieInteraction;
+import com.movie.entity.Order;
+import com.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 批量写入：先一次性校验整批数据，再用 JDBC 批量语句写库，每条数据单独返回处理结果
+@Service
+public class BatchWriteService {
+
+    private static final String INSERT_INTERACTION_IF_ABSENT =
+            "INSERT IGNORE INTO movie_interactions (user_id, movie_id, liked, play_count, created_at, updated_at) " +
+            "VALUES (?, ?, false, 0, ?, ?)";
+    private static final String UPDATE_INTERACTION =
+            "UPDATE movie_interactions SET liked = ?, liked_at = ?, rating = ?, comment = ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (user_id, movie_id, amount, status, created_at) VALUES (?, ?, ?, 'PENDING', ?)";
+    private static final String INSERT_COLLECTION_ITEM =
+            "INSERT IGNORE INTO collection_items (collection_id, movie_id, added_at) VALUES (?, ?, ?)";
+
+    // (user_id, movie_id) 唯一索引上的互动记录排序，批量插入和写入都按这个顺序
+    private static final Comparator<Item<MovieInteraction>> INTERACTION_ORDER = Comparator
+            .comparing((Item<MovieInteraction> item) -> item.value.getUserId())
+            .thenComparing(item -> item.value.getMovieId());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+    private final RecommendService recommendService;
+    private final EntitlementService entitlementService;
+    private final MovieRatingService movieRatingService;
+    private final LikeLeaderboardService likeLeaderboardService;
+    private final TransactionTemplate transactionTemplate;
+
+    // 单次请求最多提交的条数
+    private final int maxItems;
+
+    @Autowired
+    public BatchWriteService(JdbcTemplate jdbcTemplate, MovieRepository movieRepository,
+                             RecommendService recommendService, EntitlementService entitlementService,
+                             MovieRatingService movieRatingService, LikeLeaderboardService likeLeaderboardService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${batch.max-items:500}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movieRepository = movieRepository;
+        this.recommendService = recommendService;
+        this.entitlementService = entitlementService;
+        this.movieRatingService = movieRatingService;
+        this.likeLeaderboardService = likeLeaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+    }
+
+    // 请求条数超出范围时返回错误信息
+    public String checkSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            return "每批数据必须在1-" + maxItems + "条之间";
+        }
+        return null;
+    }
+
+    // 与 PUT /movie-interactions/user/{userId}/movie/{movieId} 规则相同：字段为 null 表示不修改，评分传 0 表示取消评分
+    public List<BatchItemResult> upsertInteractions(List<MovieInteraction> interactions) {
+        BatchItemResult[] results = new BatchItemResult[interactions.size()];
+        Set<Long> existingMovies = existingMovieIds(interactions.stream()
+                .filter(Objects::nonNull)
+                .map(MovieInteraction::getMovieId)
+                .toList());
+        Map<List<Long>, Integer> firstIndex = new HashMap<>();
+        List<Item<MovieInteraction>> valid = new ArrayList<>();
+        for (int i = 0; i < interactions.size(); i++) {
+            MovieInteraction interaction = interactions.get(i);
+            String error = validateInteraction(interaction, existingMovies);
+            if (error == null) {
+                Integer duplicate = firstIndex.putIfAbsent(List.of(interaction.getUserId(), interaction.getMovieId()), i);
+                if (duplicate != null) {
+                    error = "与第" + (duplicate + 1) + "条数据重复";
+                }
+            }
+            if (error != null) {
+                results[i] = BatchItemResult.error(i, error);
+            } else {
+                valid.add(new Item<>(i, interaction));
+            }
+        }
+        if (valid.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        valid.sort(INTERACTION_ORDER);
+
+        // 先在事务外补上不存在的记录并立即提交，再在事务内按主键加锁读取：
+        // 只锁已存在的行，不会在唯一索引上加间隙锁，INSERT IGNORE 遇到重复行加的共享锁也不会留到加锁读取时
+        LocalDateTime now = LocalDateTime.now();
+        Set<List<Long>> created = insertMissingInteractions(valid, Timestamp.valueOf(now));
+        return transactionTemplate.execute(status -> applyInteractions(valid, created, results, now));
+    }
+
+    private List<BatchItemResult> applyInteractions(List<Item<MovieInteraction>> valid, Set<List<Long>> created,
+                                                    BatchItemResult[] results, LocalDateTime now) {
+        Map<List<Long>, MovieInteraction> existing = lockInteractions(valid);
+
+        List<Object[]> batch = new ArrayList<>();
+        // 每部电影的 {点赞数, 评分总和, 评分人数} 增量，按电影ID排序，并发批次对 movies 行的加锁顺序一致
+        Map<Long, long[]> movieDeltas = new TreeMap<>();
+        for (Item<MovieInteraction> item : valid) {
+            MovieInteraction request = item.value;
+            List<Long> key = List.of(request.getUserId(), request.getMovieId());
+            MovieInteraction old = existing.get(key);
+            if (old == null) {
+                // 插入后、加锁前被并发删除
+                results[item.index] = BatchItemResult.error(item.index, "互动记录已被删除，请重试");
+                continue;
+            }
+            boolean oldLiked = Boolean.TRUE.equals(old.getLiked());
+            Integer oldRating = old.getRating();
+
+            boolean liked = request.getLiked() != null ? request.getLiked() : oldLiked;
+            LocalDateTime likedAt = liked == oldLiked ? old.getLikedAt() : (liked ? now : null);
+            Integer rating = request.getRating() == null ? oldRating : (request.getRating() == 0 ? null : request.getRating());
+            String comment = request.getComment() != null ? request.getComment().trim() : old.getComment();
+            batch.add(new Object[]{liked, likedAt != null ? Timestamp.valueOf(likedAt) : null, rating, comment,
+                    Timestamp.valueOf(now), old.getId()});
+
+            long[] delta = movieDeltas.computeIfAbsent(request.getMovieId(), k -> new long[3]);
+            if (liked != oldLiked) {
+                delta[0] += liked ? 1 : -1;
+            }
+            delta[1] += (rating != null ? rating : 0) - (oldRating != null ? oldRating : 0);
+            delta[2] += (rating != null ? 1 : 0) - (oldRating != null ? 1 : 0);
+            results[item.index] = BatchItemResult.success(item.index, old.getId(),
+                    created.contains(key) ? "创建成功" : "更新成功");
+        }
+        jdbcTemplate.batchUpdate(UPDATE_INTERACTION, batch, new int[]{
+                Types.BOOLEAN, Types.TIMESTAMP, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT});
+
+        // 每部电影的点赞数和评分统计只更新一次
+        movieDeltas.forEach((movieId, delta) -> {
+            if (delta[0] != 0) {
+                movieRepository.addLikes(movieId, delta[0]);
+                likeLeaderboardService.adjust(movieId, delta[0]);
+            }
+            movieRatingService.applyDelta(movieId, delta[1], delta[2]);
+        });
+        return Arrays.asList(results);
+    }
+
+    // 与 POST /orders 规则相同，已有待支付订单时直接返回该订单
+    @Transactional
+    public List<BatchItemResult> createOrders(List<Order> orders) {
+        BatchItemResult[] results = new BatchItemResult[orders.size()];
+        Set<Long> movieIds = orders.stream()
+                .filter(Objects::nonNull)
+                .map(Order::getMovieId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Movie> movies = movieRepository.findAllById(movieIds).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        Map<List<Long>, Long> pending = findPendingOrders(orders);
+
+        Map<List<Long>, Integer> firstIndex = new HashMap<>();
+        List<Item<Order>> valid = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            String error = validateOrder(order, movies);
+            List<Long> key = error == null ? List.of(order.getUserId(), order.getMovieId()) : null;
+            if (error == null) {
+                Integer duplicate = firstIndex.putIfAbsent(key, i);
+                if (duplicate != null) {
+                    error = "与第" + (duplicate + 1) + "条数据重复";
+                }
+            }
+            if (error != null) {
+                results[i] = BatchItemResult.error(i, error);
+            } else if (pending.containsKey(key)) {
+                results[i] = BatchItemResult.success(i, pending.get(key), "已存在待支付订单");
+            } else if (entitlementService.hasAccess(order.getUserId(), order.getMovieId())) {
+                results[i] = BatchItemResult.error(i, "已购买该电影且未过期");
+            } else {
+                valid.add(new Item<>(i, order));
+            }
+        }
+        if (valid.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = valid.get(i).value;
+                        ps.setLong(1, order.getUserId());
+                        ps.setLong(2, order.getMovieId());
+                        ps.setDouble(3, order.getAmount());
+                        ps.setTimestamp(4, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return valid.size();
+                    }
+                },
+                keyHolder);
+
+        // 生成的主键与批内语句一一对应
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < valid.size(); i++) {
+            int index = valid.get(i).index;
+            Long id = i < keys.size() ? toLong(keys.get(i).values().iterator().next()) : null;
+            results[index] = BatchItemResult.success(index, id, "订单创建成功");
+        }
+        return Arrays.asList(results);
+    }
+
+    // 与 POST /collections/{id}/movies 相同，已在收藏夹中的电影返回失败
+    @Transactional
+    public List<BatchItemResult> addCollectionMovies(Long collectionId, List<Long> movieIds) {
+        BatchItemResult[] results = new BatchItemResult[movieIds.size()];
+        Set<Long> collected = new HashSet<>();
+        Set<Long> requested = movieIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!requested.isEmpty()) {
+            collected.addAll(jdbcTemplate.queryForList(
+                    "SELECT movie_id FROM collection_items WHERE collection_id = ? AND movie_id IN (" +
+                    placeholders(requested.size(), "?") + ")",
+                    Long.class, prepend(collectionId, requested.toArray())));
+        }
+
+        Set<Long> existingMovies = existingMovieIds(requested);
+        Map<Long, Integer> firstIndex = new HashMap<>();
+        List<Object[]> batch = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < movieIds.size(); i++) {
+            Long movieId = movieIds.get(i);
+            if (movieId == null || !existingMovies.contains(movieId)) {
+                results[i] = BatchItemResult.error(i, "电影不存在");
+                continue;
+            }
+            Integer duplicate = firstIndex.putIfAbsent(movieId, i);
+            if (duplicate != null) {
+                results[i] = BatchItemResult.error(i, "与第" + (duplicate + 1) + "条数据重复");
+            } else if (collected.contains(movieId)) {
+                results[i] = BatchItemResult.error(i, "电影已在收藏夹中");
+            } else {
+                batch.add(new Object[]{collectionId, movieId, now});
+                results[i] = BatchItemResult.success(i, null, "添加成功");
+            }
+        }
+        // 并发添加的重复数据由唯一索引忽略
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_COLLECTION_ITEM, batch);
+        }
+        return Arrays.asList(results);
+    }
+
+    // 推荐索引中没有的电影ID（启动期间、其他实例新建的电影）一次查库确认
+    private Set<Long> existingMovieIds(Collection<Long> movieIds) {
+        Set<Long> existing = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (Long movieId : movieIds) {
+            if (movieId != null) {
+                (recommendService.contains(movieId) ? existing : unknown).add(movieId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM movies WHERE id IN (" + placeholders(unknown.size(), "?") + ")",
+                    Long.class, unknown.toArray()));
+        }
+        return existing;
+    }
+
+    private String validateInteraction(MovieInteraction interaction, Set<Long> existingMovies) {
+        if (interaction == null || interaction.getUserId() == null || interaction.getMovieId() == null) {
+            return "用户ID和电影ID不能为空";
+        }
+        if (!existingMovies.contains(interaction.getMovieId())) {
+            return "电影不存在";
+        }
+        Integer rating = interaction.getRating();
+        if (rating != null && rating != 0 && (rating < 1 || rating > 5)) {
+            return "评分必须在1-5之间";
+        }
+        String comment = interaction.getComment();
+        if (comment != null) {
+            if (comment.trim().isEmpty()) {
+                return "评论内容不能为空";
+            }
+            if (comment.trim().length() > 1000) {
+                return "评论内容不能超过1000字";
+            }
+        }
+        return null;
+    }
+
+    private String validateOrder(Order order, Map<Long, Movie> movies) {
+        if (order == null || order.getUserId() == null || order.getMovieId() == null || order.getAmount() == null) {
+            return "用户ID、电影ID和金额不能为空";
+        }
+        Movie movie = movies.get(order.getMovieId());
+        if (movie == null) {
+            return "电影不存在";
+        }
+        if (movie.getIsFree()) {
+            return "免费电影无需购买";
+        }
+        if (!order.getAmount().equals(movie.getPrice())) {
+            return "订单金额不正确";
+        }
+        return null;
+    }
+
+    // 插入批次中还没有的互动记录，返回本次新建的 (用户ID, 电影ID)；存在性用不加锁的一致性读判断。
+    // 后续事务失败时这些记录保留为未点赞、未评分的空互动
+    private Set<List<Long>> insertMissingInteractions(List<Item<MovieInteraction>> items, Timestamp now) {
+        Set<List<Long>> present = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT user_id, movie_id FROM movie_interactions WHERE (user_id, movie_id) IN (" +
+                placeholders(items.size(), "(?, ?)") + ")",
+                rs -> {
+                    present.add(List.of(rs.getLong("user_id"), rs.getLong("movie_id")));
+                },
+                interactionKeys(items));
+        Set<List<Long>> created = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Item<MovieInteraction> item : items) {
+            List<Long> key = List.of(item.value.getUserId(), item.value.getMovieId());
+            if (!present.contains(key)) {
+                created.add(key);
+                batch.add(new Object[]{key.get(0), key.get(1), now, now});
+            }
+        }
+        // 并发请求先插入的记录由唯一索引忽略
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INTERACTION_IF_ABSENT, batch, new int[]{
+                    Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP});
+        }
+        return created;
+    }
+
+    // 先不加锁查出主键，再按主键一次锁住记录：不论走主键查找还是全表扫描，加锁顺序都是主键升序，并发批次不会互相死锁
+    private Map<List<Long>, MovieInteraction> lockInteractions(List<Item<MovieInteraction>> items) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM movie_interactions WHERE (user_id, movie_id) IN (" +
+                placeholders(items.size(), "(?, ?)") + ")",
+                Long.class, interactionKeys(items));
+        Map<List<Long>, MovieInteraction> existing = new HashMap<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        String sql = "SELECT id, user_id, movie_id, liked, liked_at, rating, comment FROM movie_interactions " +
+                     "WHERE id IN (" + placeholders(ids.size(), "?") + ") ORDER BY id FOR UPDATE";
+        jdbcTemplate.query(sql, rs -> {
+            MovieInteraction interaction = new MovieInteraction();
+            interaction.setId(rs.getLong("id"));
+            interaction.setUserId(rs.getLong("user_id"));
+            interaction.setMovieId(rs.getLong("movie_id"));
+            interaction.setLiked(rs.getBoolean("liked"));
+            Timestamp likedAt = rs.getTimestamp("liked_at");
+            interaction.setLikedAt(likedAt != null ? likedAt.toLocalDateTime() : null);
+            interaction.setRating(rs.getObject("rating", Integer.class));
+            interaction.setComment(rs.getString("comment"));
+            existing.put(List.of(interaction.getUserId(), interaction.getMovieId()), interaction);
+        }, ids.toArray());
+        return existing;
+    }
+
+    private static Object[] interactionKeys(List<Item<MovieInteraction>> items) {
+        List<Object> args = new ArrayList<>();
+        for (Item<MovieInteraction> item : items) {
+            args.add(item.value.getUserId());
+            args.add(item.value.getMovieId());
+        }
+        return args.toArray();
+    }
+
+    // 查出批次中涉及的用户和电影已有的待支付订单，(用户ID, 电影ID) -> 订单ID
+    private Map<List<Long>, Long> findPendingOrders(List<Order> orders) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> movieIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order != null && order.getUserId() != null && order.getMovieId() != null) {
+                userIds.add(order.getUserId());
+                movieIds.add(order.getMovieId());
+            }
+        }
+        Map<List<Long>, Long> pending = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return pending;
+        }
+        List<Object> args = new ArrayList<>(userIds);
+        args.addAll(movieIds);
+        jdbcTemplate.query(
+                "SELECT id, user_id, movie_id FROM orders WHERE status = 'PENDING' " +
+                "AND user_id IN (" + placeholders(userIds.size(), "?") + ") " +
+                "AND movie_id IN (" + placeholders(movieIds.size(), "?") + ")",
+                rs -> {
+                    pending.putIfAbsent(List.of(rs.getLong("user_id"), rs.getLong("movie_id")), rs.getLong("id"));
+                },
+                args.toArray());
+        return pending;
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        return String.join(", ", Collections.nCopies(count, placeholder));
+    }
+
+    private static Object[] prepend(Object first, Object[] rest) {
+        Object[] args = new Object[rest.length + 1];
+        args[0] = first;
+        System.arraycopy(rest, 0, args, 1, rest.length);
+        return args;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    // 通过校验的数据及其在请求数组中的下标
+    private static final class Item<T> {
+        private final int index;
+        private final T value;
+
+        private Item(int index, T value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.movie.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movie.entity.UserMovie;
+import com.movie.repository.MovieRepository;
+import com.movie.repository.UserMovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 播放权限判断：免费电影位图 + 每个用户已购电影的到期时间，常见路径不查数据库
+@Service
+public class EntitlementService {
+
+    // 位图按最大ID分配内存，只存放小于该值的电影ID（最多 2MB），更大的ID放进集合
+    private static final long BITSET_LIMIT = 1L << 24;
+
+    private final MovieRepository movieRepository;
+    private final UserMovieRepository userMovieRepository;
+
+    // 免费电影ID，写时复制，读取无需加锁
+    private volatile FreeMovies freeMovies = new FreeMovies(new BitSet(), Set.of());
+
+    // 用户ID -> (电影ID -> 到期时间)，按用户数限制容量；其他实例上的购买只会直接写库，
+    // 加载后超过 cache-ttl 一律重新加载，不因持续访问而一直沿用旧数据
+    private final Cache<Long, Map<Long, LocalDateTime>> entitlements;
+
+    // 免费电影集合按写时复制更新，修改之间互斥
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public EntitlementService(MovieRepository movieRepository, UserMovieRepository userMovieRepository,
+                              @Value("${entitlement.cache-size:10000}") long cacheSize,
+                              @Value("${entitlement.cache-ttl:600000}") long cacheTtl) {
+        this.movieRepository = movieRepository;
+        this.userMovieRepository = userMovieRepository;
+        this.entitlements = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtl))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFreeMovies() {
+        lock.lock();
+        try {
+            BitSet small = new BitSet();
+            Set<Long> large = new HashSet<>();
+            for (Long movieId : movieRepository.findFreeMovieIds()) {
+                if (fitsBitSet(movieId)) {
+                    small.set(movieId.intValue());
+                } else {
+                    large.add(movieId);
+                }
+            }
+            freeMovies = new FreeMovies(small, large);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isFree(Long movieId) {
+        FreeMovies free = freeMovies;
+        return fitsBitSet(movieId) ? free.small.get(movieId.intValue()) : free.large.contains(movieId);
+    }
+
+    // 电影新增或修改后调用
+    public void updateMovie(Long movieId, boolean free) {
+        lock.lock();
+        try {
+            FreeMovies current = freeMovies;
+            BitSet small = current.small;
+            Set<Long> large = current.large;
+            if (fitsBitSet(movieId)) {
+                small = (BitSet) small.clone();
+                small.set(movieId.intValue(), free);
+            } else {
+                large = new HashSet<>(large);
+                if (free) {
+                    large.add(movieId);
+                } else {
+                    large.remove(movieId);
+                }
+            }
+            freeMovies = new FreeMovies(small, large);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 登录时预加载用户的有效购买记录
+    public void warm(Long userId) {
+        entitlements.invalidate(userId);
+        entitlements.get(userId, this::load);
+    }
+
+    // 到期时间严格按 expiredAt 判断，过期的记录顺便移除。
+    // 缓存中没有有效记录时，拒绝之前再按数据库确认一次：购买可能刚在其他实例上完成，而这种情况很少
+    public boolean hasAccess(Long userId, Long movieId) {
+        Map<Long, LocalDateTime> movies = entitlements.get(userId, this::load);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredAt = movies.get(movieId);
+        if (expiredAt != null) {
+            if (expiredAt.isAfter(now)) {
+                return true;
+            }
+            movies.remove(movieId, expiredAt);
+        }
+        Optional<UserMovie> purchased = userMovieRepository
+                .findFirstByUserIdAndMovieIdAndExpiredAtGreaterThanOrderByExpiredAtDesc(userId, movieId, now);
+        purchased.ifPresent(userMovie -> movies.merge(movieId, userMovie.getExpiredAt(), (a, b) -> a.isAfter(b) ? a : b));
+        return purchased.isPresent();
+    }
+
+    // 支付成功后调用；在事务中时等提交后再生效，避免回滚后仍然放行
+    public void grant(Long userId, Long movieId, LocalDateTime expiredAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, movieId, expiredAt);
+                }
+            });
+        } else {
+            apply(userId, movieId, expiredAt);
+        }
+    }
+
+    // 用户未加载时不需要处理，下次访问会从数据库读到新记录
+    private void apply(Long userId, Long movieId, LocalDateTime expiredAt) {
+        entitlements.asMap().computeIfPresent(userId, (id, movies) -> {
+            movies.merge(movieId, expiredAt, (a, b) -> a.isAfter(b) ? a : b);
+            return movies;
+        });
+    }
+
+    private static boolean fitsBitSet(Long movieId) {
+        return movieId >= 0 && movieId < BITSET_LIMIT;
+    }
+
+    private Map<Long, LocalDateTime> load(Long userId) {
+        Map<Long, LocalDateTime> movies = new ConcurrentHashMap<>();
+        for (UserMovie userMovie : userMovieRepository.findByUserIdAndExpiredAtGreaterThan(userId, LocalDateTime.now())) {
+            movies.merge(userMovie.getMovieId(), userMovie.getExpiredAt(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        return movies;
+    }
+
+    private static final class FreeMovies {
+        private final BitSet small;
+        private final Set<Long> large;
+
+        private FreeMovies(BitSet small, Set<Long> large) {
+            this.small = small;
+            this.large = large;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.movie.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.common.ApiResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// 管理后台的大批量导出：边读结果集边写响应，每写一批清空持久化上下文，内存占用与导出行数无关
+@Service
+public class ExportService {
+
+    private static final Set<String> FORMATS = Set.of("ndjson", "csv");
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    // 每写出这么多行刷新一次输出并清空持久化上下文
+    private static final int BATCH_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ExportService(ObjectMapper objectMapper, EntityManagerFactory entityManagerFactory,
+                         PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public static <T> Column<T> column(String name, Function<T, ?> value) {
+        return new Column<>(name, value);
+    }
+
+    // format 为 ndjson 或 csv；query 在写响应的线程上、只读事务内执行，流式查询要求事务在遍历结束前保持打开，
+    // 因此导出期间一直占用连接池中的一个连接，下载慢的客户端会占用更久
+    public <T> ResponseEntity<StreamingResponseBody> export(String filename, String format,
+                                                            Supplier<Stream<T>> query, List<Column<T>> columns) {
+        if (!FORMATS.contains(format)) {
+            ApiResponse<Void> error = ApiResponse.error(400, "不支持的导出格式");
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        boolean csv = "csv".equals(format);
+        StreamingResponseBody body = out -> withoutRequestEntityManager(() -> transactionTemplate.executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<T> rows = query.get()) {
+                if (csv) {
+                    // 带 BOM，Excel 打开时按 UTF-8 识别中文
+                    writer.write('\uFEFF');
+                    writeCsvRow(writer, columns.stream().map(c -> c.name).toList());
+                }
+                int count = 0;
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    if (csv) {
+                        writeCsvRow(writer, columns.stream().map(c -> c.value.apply(row)).toList());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    if (++count % BATCH_SIZE == 0) {
+                        writer.flush();
+                        entityManager.clear();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename + "." + (csv ? "csv" : "ndjson"))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    // open-in-view 会把请求的 EntityManager 绑定到异步线程上，它持有的连接要等异步请求结束才归还，
+    // 客户端中途断开时可能一直占到 request-timeout。导出期间先解绑，事务使用自己的 EntityManager，提交或回滚后即归还连接
+    private void withoutRequestEntityManager(Runnable export) {
+        Object requestEntityManager = TransactionSynchronizationManager.hasResource(entityManagerFactory)
+                ? TransactionSynchronizationManager.unbindResource(entityManagerFactory)
+                : null;
+        try {
+            export.run();
+        } finally {
+            if (requestEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+            }
+        }
+    }
+
+    private void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // 含逗号、引号或换行的字段用双引号包起来，内部引号写两遍
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    public static final class Column<T> {
+        private final String name;
+        private final Function<T, ?> value;
+
+        private Column(String name, Function<T, ?> value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
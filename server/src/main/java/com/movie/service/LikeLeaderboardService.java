@@ -0,0 +1,113 @@
+package com.movie.service;
+
+import com.movie.dto.LikeCount;
+import com.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 内存中的点赞排行榜，点赞状态变化时增量调整，取前 K 名只需遍历 K 个节点
+@Service
+public class LikeLeaderboardService {
+
+    // 按点赞数降序，相同时按电影ID升序
+    private static final Comparator<LikeCount> ORDER = Comparator
+            .comparingLong(LikeCount::getLikes).reversed()
+            .thenComparing(LikeCount::getMovieId);
+
+    private final MovieRepository movieRepository;
+
+    // 电影ID -> 当前排行榜中的节点
+    private final Map<Long, LikeCount> counts = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<LikeCount> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    // 串行化 counts 和 ranking 的联动修改
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public LikeLeaderboardService(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    // 启动完成后从 movies.like_count 加载
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            counts.clear();
+            ranking.clear();
+            for (LikeCount count : movieRepository.findLikeCounts()) {
+                counts.put(count.getMovieId(), count);
+                ranking.add(count);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 与 movies.like_count 同步；在事务中时等提交后再调整，避免回滚后排行榜与数据库不一致
+    public void adjust(Long movieId, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(movieId, delta);
+                }
+            });
+        } else {
+            apply(movieId, delta);
+        }
+    }
+
+    private void apply(Long movieId, long delta) {
+        lock.lock();
+        try {
+            LikeCount old = counts.remove(movieId);
+            long likes = delta;
+            if (old != null) {
+                ranking.remove(old);
+                likes += old.getLikes();
+            }
+            if (likes > 0) {
+                LikeCount count = new LikeCount(movieId, likes);
+                counts.put(movieId, count);
+                ranking.add(count);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 电影删除后调用
+    public void remove(Long movieId) {
+        lock.lock();
+        try {
+            LikeCount old = counts.remove(movieId);
+            if (old != null) {
+                ranking.remove(old);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<LikeCount> top(int limit) {
+        List<LikeCount> result = new ArrayList<>(limit);
+        for (LikeCount count : ranking) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(count);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.movie.service;
+
+import com.movie.repository.OrderRepository;
+import com.movie.repository.UserMovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// 定时清理：删除过期较久的购买记录，取消超时未支付的订单；分批执行并在批次间暂停，避免长事务和锁表
+@Service
+public class MaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceService.class);
+
+    private final UserMovieRepository userMovieRepository;
+    private final OrderRepository orderRepository;
+
+    private final Duration userMovieRetention;
+    private final Duration pendingOrderTtl;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long batchPauseMillis;
+
+    private final AtomicLong totalUserMoviesDeleted = new AtomicLong();
+    private final AtomicLong totalOrdersCancelled = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    // 定时任务和手动触发不能同时运行；运行期间会等待数据库和 sleep，在虚拟线程上用 synchronized 会占住载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public MaintenanceService(UserMovieRepository userMovieRepository, OrderRepository orderRepository,
+                              @Value("${maintenance.user-movie-retention:7d}") Duration userMovieRetention,
+                              @Value("${maintenance.pending-order-ttl:30m}") Duration pendingOrderTtl,
+                              @Value("${maintenance.batch-size:500}") int batchSize,
+                              @Value("${maintenance.max-batches:100}") int maxBatches,
+                              @Value("${maintenance.batch-pause:100}") long batchPauseMillis) {
+        this.userMovieRepository = userMovieRepository;
+        this.orderRepository = orderRepository;
+        this.userMovieRetention = userMovieRetention;
+        this.pendingOrderTtl = pendingOrderTtl;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${maintenance.initial-delay:60000}", fixedDelayString = "${maintenance.interval:3600000}")
+    public void run() {
+        lock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+
+            // 过期超过保留期的购买记录已不再影响播放权限
+            int deleted = sweep(now.minus(userMovieRetention),
+                    cutoff -> userMovieRepository.findExpiredIds(cutoff, PageRequest.of(0, batchSize)),
+                    ids -> {
+                        userMovieRepository.deleteAllByIdInBatch(ids);
+                        return ids.size();
+                    });
+
+            int cancelled = sweep(now.minus(pendingOrderTtl),
+                    cutoff -> orderRepository.findStalePendingIds(cutoff, PageRequest.of(0, batchSize)),
+                    orderRepository::cancelPending);
+
+            long elapsed = System.currentTimeMillis() - start;
+            totalUserMoviesDeleted.addAndGet(deleted);
+            totalOrdersCancelled.addAndGet(cancelled);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("finishedAt", LocalDateTime.now());
+            stats.put("durationMillis", elapsed);
+            stats.put("userMoviesDeleted", deleted);
+            stats.put("ordersCancelled", cancelled);
+            stats.put("totalUserMoviesDeleted", totalUserMoviesDeleted.get());
+            stats.put("totalOrdersCancelled", totalOrdersCancelled.get());
+            lastRun = stats;
+
+            if (deleted > 0 || cancelled > 0) {
+                log.info("Maintenance deleted {} expired user movies and cancelled {} pending orders in {} ms",
+                        deleted, cancelled, elapsed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 最近一次运行的处理行数和累计值
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    // 每批重新按条件查询前 batchSize 个ID，处理后暂停；单次运行最多 maxBatches 批，剩余的留到下次
+    private int sweep(LocalDateTime cutoff, Function<LocalDateTime, List<Long>> nextBatch,
+                      Function<List<Long>, Integer> process) {
+        int processed = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = nextBatch.apply(cutoff);
+            if (ids.isEmpty()) {
+                break;
+            }
+            processed += process.apply(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return processed;
+    }
+}
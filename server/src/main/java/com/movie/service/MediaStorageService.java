@@ -0,0 +1,212 @@
+package com.movie.service;
+
+import com.movie.dto.MediaRef;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// 基于内容哈希的本地文件存储，用于电影封面和轮播图
+@Service
+public class MediaStorageService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // 带版本号的地址内容不会变化，可以长期缓存；否则每次都用 ETag 校验
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "public, no-cache";
+
+    private final Path root;
+
+    public MediaStorageService(@Value("${media.storage-path:data/media}") String storagePath) {
+        this.root = Paths.get(storagePath).toAbsolutePath().normalize();
+    }
+
+    // 保存前端上传的 data URL（data:image/png;base64,...），纯 base64 按 JPEG 处理
+    public MediaRef storeDataUrl(String dataUrl) throws IOException {
+        String contentType = "image/jpeg";
+        String data = dataUrl;
+        int comma = dataUrl.indexOf(',');
+        if (dataUrl.startsWith("data:") && comma > 0) {
+            String header = dataUrl.substring(5, comma);
+            int semicolon = header.indexOf(';');
+            String mimeType = semicolon >= 0 ? header.substring(0, semicolon) : header;
+            if (!mimeType.isEmpty()) {
+                contentType = mimeType;
+            }
+            data = dataUrl.substring(comma + 1);
+        }
+        if (!contentType.startsWith("image/")) {
+            throw new IllegalArgumentException("只支持图片格式");
+        }
+        return store(Base64.getMimeDecoder().decode(data), contentType);
+    }
+
+    public MediaRef store(byte[] bytes, String contentType) throws IOException {
+        String hash = sha256(bytes);
+        Path target = resolve(hash);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return new MediaRef(hash, contentType);
+    }
+
+    // 输出文件内容，支持 ETag / If-None-Match 和单段 Range 请求
+    public void serve(MediaRef ref, String version, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (ref == null || ref.getHash() == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = resolve(ref.getHash());
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + ref.getHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                ref.getHash().equals(version) ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(ref.getContentType());
+        response.setContentLengthLong(end - start + 1);
+
+        // Tomcat 支持 sendfile 时由容器直接从文件发送到 socket
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // 按哈希前两级分目录，避免单个目录文件过多
+    private Path resolve(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("无效的媒体哈希");
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 返回 [start, end]；不支持的格式或多段范围返回空数组表示整体输出；无法满足返回 null
+    private long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.contains(",")) {
+            return new long[0];
+        }
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N 表示最后 N 个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
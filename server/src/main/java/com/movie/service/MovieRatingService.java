@@ -0,0 +1,41 @@
+package com.movie.service;
+
+import com.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// 把用户评分的变化以增量方式累加到 movies 的评分统计列
+@Service
+public class MovieRatingService {
+
+    private final MovieRepository movieRepository;
+
+    // 基础评分相当于多少个用户评分
+    private final double priorWeight;
+
+    @Autowired
+    public MovieRatingService(MovieRepository movieRepository,
+                              @Value("${rating.prior-weight:10}") double priorWeight) {
+        this.movieRepository = movieRepository;
+        this.priorWeight = priorWeight;
+    }
+
+    // oldRating / newRating 为 null 表示没有评分，需在调用方事务中执行
+    public void applyChange(Long movieId, Integer oldRating, Integer newRating) {
+        long sumDelta = (newRating != null ? newRating : 0) - (oldRating != null ? oldRating : 0);
+        long countDelta = (newRating != null ? 1 : 0) - (oldRating != null ? 1 : 0);
+        applyDelta(movieId, sumDelta, countDelta);
+    }
+
+    // 批量修改时先按电影合并评分的变化，每部电影只更新一次
+    public void applyDelta(Long movieId, long sumDelta, long countDelta) {
+        if (sumDelta != 0 || countDelta != 0) {
+            movieRepository.addRating(movieId, sumDelta, countDelta, priorWeight);
+        }
+    }
+
+    public void refreshScore(Long movieId) {
+        movieRepository.refreshScore(movieId, priorWeight);
+    }
+}
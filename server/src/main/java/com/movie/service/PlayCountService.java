@@ -0,0 +1,178 @@
+package com.movie.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 播放次数先在内存中累加，定时批量写回数据库，避免热门电影的行锁竞争
+@Service
+public class PlayCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayCountService.class);
+
+    private static final String UPDATE_MOVIE =
+            "UPDATE movies SET play_count = play_count + ? WHERE id = ?";
+    private static final String UPDATE_INTERACTION =
+            "UPDATE movie_interactions SET play_count = COALESCE(play_count, 0) + ?, updated_at = NOW() " +
+            "WHERE user_id = ? AND movie_id = ?";
+    private static final String INSERT_INTERACTION =
+            "INSERT INTO movie_interactions (user_id, movie_id, liked, play_count, created_at, updated_at) " +
+            "VALUES (?, ?, false, ?, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE play_count = COALESCE(play_count, 0) + ?, updated_at = NOW()";
+
+    // 写回时按同一顺序加行锁，多个实例同时写回时不会互相死锁
+    private static final Comparator<InteractionKey> KEY_ORDER = Comparator
+            .comparing((InteractionKey key) -> key.userId)
+            .thenComparing(key -> key.movieId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // 电影ID -> 未写回的播放次数；LongAdder 内部分段计数，高并发下不争用同一个变量
+    private final Map<Long, LongAdder> moviePlays = new ConcurrentHashMap<>();
+
+    // (用户ID, 电影ID) -> 未写回的播放次数；写回时整条移除，不会丢计数
+    private final Map<InteractionKey, Long> interactionPlays = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PlayCountService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(Long movieId, Long userId) {
+        moviePlays.computeIfAbsent(movieId, k -> new LongAdder()).increment();
+        if (userId != null) {
+            interactionPlays.merge(new InteractionKey(userId, movieId), 1L, Long::sum);
+        }
+    }
+
+    // 电影删除后丢弃尚未写回的计数
+    public void discard(Long movieId) {
+        moviePlays.remove(movieId);
+        interactionPlays.keySet().removeIf(key -> key.movieId.equals(movieId));
+    }
+
+    @Scheduled(fixedDelayString = "${play-count.flush-interval:5000}")
+    public void flush() {
+        flushMovies();
+        flushInteractions();
+    }
+
+    // 停机前把剩余计数写回
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // 每次写回在一个事务中执行：批量语句中途失败时整体回滚，再把计数加回去，不会重复累加已经写入的部分
+    private void flushMovies() {
+        // 电影计数器常驻，只清零不移除，避免移除时并发累加落到已丢弃的计数器上
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : moviePlays.entrySet()) {
+            long plays = entry.getValue().sumThenReset();
+            if (plays > 0) {
+                batch.add(new Object[]{plays, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        // 与批量接口一样按电影ID升序更新 movies
+        batch.sort(Comparator.comparing(args -> (Long) args[1]));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_MOVIE, batch));
+        } catch (DataAccessException | TransactionException e) {
+            // 写回失败时把计数加回去，下次再试
+            log.warn("Failed to flush play counts of {} movies: {}", batch.size(), e.getMessage());
+            for (Object[] args : batch) {
+                moviePlays.computeIfAbsent((Long) args[1], k -> new LongAdder()).add((Long) args[0]);
+            }
+        }
+    }
+
+    private void flushInteractions() {
+        List<InteractionKey> keys = new ArrayList<>(interactionPlays.keySet());
+        keys.sort(KEY_ORDER);
+        List<InteractionKey> flushed = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (InteractionKey key : keys) {
+            Long plays = interactionPlays.remove(key);
+            if (plays != null && plays > 0) {
+                flushed.add(key);
+                batch.add(new Object[]{plays, key.userId, key.movieId});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_INTERACTION, batch);
+
+                // 还没有互动记录的用户，补插一条
+                List<Object[]> inserts = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        Object[] args = batch.get(i);
+                        inserts.add(new Object[]{args[1], args[2], args[0], args[0]});
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_INTERACTION, inserts);
+                }
+            });
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Failed to flush play counts of {} interactions: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < flushed.size(); i++) {
+                restore(flushed.get(i), batch.get(i));
+            }
+        }
+    }
+
+    private void restore(InteractionKey key, Object[] args) {
+        interactionPlays.merge(key, (Long) args[0], Long::sum);
+    }
+
+    private static final class InteractionKey {
+        private final Long userId;
+        private final Long movieId;
+
+        private InteractionKey(Long userId, Long movieId) {
+            this.userId = userId;
+            this.movieId = movieId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InteractionKey other)) {
+                return false;
+            }
+            return userId.equals(other.userId) && movieId.equals(other.movieId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, movieId);
+        }
+    }
+}
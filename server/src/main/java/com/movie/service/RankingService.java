@@ -0,0 +1,79 @@
+package com.movie.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.movie.dto.MovieSummary;
+import com.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// 榜单缓存：每个榜单只做一次按索引排序的前 N 条查询，被访问时按刷新周期在后台重新加载
+@Service
+public class RankingService {
+
+    public static final Set<String> TYPES = Set.of("rating", "popularity", "newest", "region");
+
+    // 每个榜单缓存的最大条数
+    public static final int MAX_SIZE = 100;
+
+    // 缓存的榜单数上限，地区榜按地区ID各占一个
+    private static final int MAX_BOARDS = 256;
+
+    // 一段时间没有访问的榜单被移除，不再刷新
+    private static final Duration BOARD_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    // 评分榜按贝叶斯加权评分排序
+    private static final Sort BY_RATING = Sort.by(Sort.Order.desc("score"), Sort.Order.desc("id"));
+    private static final Sort BY_PLAY_COUNT = Sort.by(Sort.Order.desc("playCount"), Sort.Order.desc("id"));
+    private static final Sort BY_NEWEST = Sort.by(Sort.Order.desc("id"));
+
+    private final MovieRepository movieRepository;
+
+    // 榜单键（rating / popularity / newest / region:地区ID）-> 榜单
+    private final LoadingCache<String, List<MovieSummary>> boards;
+
+    // 超过刷新周期后的第一次访问仍返回旧榜单并在后台重新加载，播放次数等变化在一个刷新周期内可见
+    @Autowired
+    public RankingService(MovieRepository movieRepository,
+                          @Value("${ranking.refresh-interval:60000}") long refreshInterval) {
+        this.movieRepository = movieRepository;
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(MAX_BOARDS)
+                .expireAfterAccess(BOARD_IDLE_TIMEOUT)
+                .refreshAfterWrite(Duration.ofMillis(refreshInterval))
+                .build(this::load);
+    }
+
+    // regionId 只对 region 榜单有效，由调用方校验地区存在
+    public List<MovieSummary> getRanking(String type, Long regionId, int limit) {
+        String key = "region".equals(type) ? "region:" + regionId : type;
+        List<MovieSummary> board = boards.get(key);
+        return board.subList(0, Math.min(limit, board.size()));
+    }
+
+    // 电影增删改后清空，下次访问时重新加载
+    public void invalidate() {
+        boards.invalidateAll();
+    }
+
+    private List<MovieSummary> load(String key) {
+        PageRequest top = PageRequest.of(0, MAX_SIZE);
+        if (key.startsWith("region:")) {
+            Long regionId = Long.valueOf(key.substring("region:".length()));
+            return List.copyOf(movieRepository.findSummariesByRegion(regionId, top.withSort(BY_RATING)));
+        }
+        return List.copyOf(switch (key) {
+            case "rating" -> movieRepository.findSummaries(top.withSort(BY_RATING));
+            case "popularity" -> movieRepository.findSummaries(top.withSort(BY_PLAY_COUNT));
+            case "newest" -> movieRepository.findSummaries(top.withSort(BY_NEWEST));
+            default -> throw new IllegalArgumentException("不支持的榜单类型");
+        });
+    }
+}
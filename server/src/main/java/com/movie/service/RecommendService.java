@@ -0,0 +1,249 @@
+package com.movie.service;
+
+import com.movie.dto.MovieIndexEntry;
+import com.movie.entity.Movie;
+import com.movie.entity.MovieInteraction;
+import com.movie.repository.MovieInteractionRepository;
+import com.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+@Service
+public class RecommendService {
+
+    // 按评分降序，评分相同时按命中的偏好类型数降序
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingDouble((Candidate c) -> c.rating)
+            .thenComparingInt(c -> c.matches)
+            .thenComparing(c -> c.id, Comparator.reverseOrder());
+
+    private final MovieRepository movieRepository;
+    private final MovieInteractionRepository movieInteractionRepository;
+
+    // 电影ID -> 索引条目
+    private final Map<Long, MovieIndexEntry> entries = new ConcurrentHashMap<>();
+
+    // 分类ID -> 电影ID 倒排索引
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // 串行化索引的修改，rebuild 期间会查询数据库
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public RecommendService(MovieRepository movieRepository, MovieInteractionRepository movieInteractionRepository) {
+        this.movieRepository = movieRepository;
+        this.movieInteractionRepository = movieInteractionRepository;
+    }
+
+    // 启动完成后全量构建索引
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            entries.clear();
+            postings.clear();
+            for (MovieIndexEntry entry : movieRepository.findAllIndexEntries()) {
+                addEntry(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 电影新增或更新后调用，替换索引中的旧条目
+    public void index(Movie movie) {
+        lock.lock();
+        try {
+            removeEntry(movie.getId());
+            addEntry(new MovieIndexEntry(
+                    movie.getId(),
+                    movie.getCategories(),
+                    movie.getRegion(),
+                    movie.getYear(),
+                    movie.getPrice(),
+                    movie.getRating()
+            ));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 电影删除后调用
+    public void remove(Long movieId) {
+        lock.lock();
+        try {
+            removeEntry(movieId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 索引在启动完成后构建，之后只随本实例上的修改更新：命中说明电影存在，未命中不能说明不存在
+    // （启动期间、其他实例新建的电影），调用方需要再查库确认
+    public boolean contains(Long movieId) {
+        return entries.containsKey(movieId);
+    }
+
+    // 返回按推荐顺序排列的前 limit 个电影ID
+    public List<Long> recommend(Long userId, Map<String, Object> filters, int limit) {
+        Predicate<MovieIndexEntry> filter = buildFilter(filters);
+
+        // 只考虑用户点赞或有播放记录的电影
+        Set<Long> interactedMovieIds = new HashSet<>();
+        for (MovieInteraction interaction : movieInteractionRepository.findByUserId(userId)) {
+            Boolean liked = interaction.getLiked();
+            Integer playCount = interaction.getPlayCount();
+            if ((liked != null && liked) || (playCount != null && playCount > 0)) {
+                interactedMovieIds.add(interaction.getMovieId());
+            }
+        }
+
+        // 没有偏好数据时，直接返回所有符合筛选条件的电影
+        if (interactedMovieIds.isEmpty()) {
+            PriorityQueue<Candidate> heap = new PriorityQueue<>(RANKING);
+            for (MovieIndexEntry entry : entries.values()) {
+                if (filter.test(entry)) {
+                    offer(heap, new Candidate(entry, 0), limit);
+                }
+            }
+            return drain(heap);
+        }
+
+        // 获取用户喜欢的电影类型
+        Set<Long> preferredCategories = new HashSet<>();
+        for (Long movieId : interactedMovieIds) {
+            MovieIndexEntry entry = entries.get(movieId);
+            if (entry != null) {
+                preferredCategories.addAll(entry.getCategoryIds());
+            }
+        }
+
+        // 只遍历偏好类型的倒排列表，统计每部候选电影命中的类型数
+        Map<Long, Integer> matches = new HashMap<>();
+        for (Long categoryId : preferredCategories) {
+            Set<Long> movieIds = postings.get(categoryId);
+            if (movieIds == null) {
+                continue;
+            }
+            for (Long movieId : movieIds) {
+                if (!interactedMovieIds.contains(movieId)) {
+                    matches.merge(movieId, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(RANKING);
+        for (Map.Entry<Long, Integer> match : matches.entrySet()) {
+            MovieIndexEntry entry = entries.get(match.getKey());
+            if (entry != null && filter.test(entry)) {
+                offer(heap, new Candidate(entry, match.getValue()), limit);
+            }
+        }
+        return drain(heap);
+    }
+
+    private void addEntry(MovieIndexEntry entry) {
+        entries.put(entry.getId(), entry);
+        for (Long categoryId : entry.getCategoryIds()) {
+            postings.computeIfAbsent(categoryId, k -> ConcurrentHashMap.newKeySet()).add(entry.getId());
+        }
+    }
+
+    private void removeEntry(Long movieId) {
+        MovieIndexEntry old = entries.remove(movieId);
+        if (old == null) {
+            return;
+        }
+        for (Long categoryId : old.getCategoryIds()) {
+            Set<Long> movieIds = postings.get(categoryId);
+            if (movieIds != null) {
+                movieIds.remove(movieId);
+                if (movieIds.isEmpty()) {
+                    postings.remove(categoryId);
+                }
+            }
+        }
+    }
+
+    // 小顶堆只保留 limit 个最优候选
+    private void offer(PriorityQueue<Candidate> heap, Candidate candidate, int limit) {
+        if (heap.size() < limit) {
+            heap.offer(candidate);
+        } else if (RANKING.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.offer(candidate);
+        }
+    }
+
+    private List<Long> drain(PriorityQueue<Candidate> heap) {
+        LinkedList<Long> ids = new LinkedList<>();
+        while (!heap.isEmpty()) {
+            ids.addFirst(heap.poll().id);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // 将前端传入的筛选条件转换为索引条目上的判断
+    private Predicate<MovieIndexEntry> buildFilter(Map<String, Object> filters) {
+        Predicate<MovieIndexEntry> filter = entry -> true;
+        if (filters == null) {
+            return filter;
+        }
+
+        // 类型过滤
+        Long categoryId = toLong(filters.get("categoryId"));
+        if (categoryId != null) {
+            filter = filter.and(entry -> entry.getCategoryIds().contains(categoryId));
+        }
+
+        // 地区过滤
+        Long regionId = toLong(filters.get("regionId"));
+        if (regionId != null) {
+            filter = filter.and(entry -> Objects.equals(entry.getRegion(), regionId));
+        }
+
+        // 年份过滤
+        Long year = toLong(filters.get("year"));
+        if (year != null) {
+            filter = filter.and(entry -> entry.getYear() != null && entry.getYear().longValue() == year);
+        }
+
+        // 价格过滤
+        Object maxPriceValue = filters.get("maxPrice");
+        if (maxPriceValue != null) {
+            double maxPrice = Double.parseDouble(String.valueOf(maxPriceValue));
+            filter = filter.and(entry -> entry.getPrice() != null && entry.getPrice() <= maxPrice);
+        }
+
+        return filter;
+    }
+
+    private Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.valueOf(String.valueOf(value));
+    }
+
+    private static class Candidate {
+        private final Long id;
+        private final double rating;
+        private final int matches;
+
+        private Candidate(MovieIndexEntry entry, int matches) {
+            this.id = entry.getId();
+            this.rating = entry.getRating() != null ? entry.getRating() : 0.0;
+            this.matches = matches;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.movie.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.dto.VersionedList;
+import com.movie.entity.Carousel;
+import com.movie.entity.Category;
+import com.movie.entity.Region;
+import com.movie.repository.CarouselRepository;
+import com.movie.repository.CategoryRepository;
+import com.movie.repository.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 分类、地区、轮播图等很少变化的基础数据，整表缓存在本地，增删改时清除
+@Service
+public class ReferenceDataService {
+
+    public static final String CATEGORIES = "categories";
+    public static final String REGIONS = "regions";
+    public static final String CAROUSELS = "carousels";
+
+    private final CategoryRepository categoryRepository;
+    private final RegionRepository regionRepository;
+    private final CarouselRepository carouselRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ReferenceDataService(CategoryRepository categoryRepository, RegionRepository regionRepository,
+                                CarouselRepository carouselRepository, ObjectMapper objectMapper) {
+        this.categoryRepository = categoryRepository;
+        this.regionRepository = regionRepository;
+        this.carouselRepository = carouselRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Cacheable(CATEGORIES)
+    public VersionedList<Category> getCategories() {
+        return versioned(categoryRepository.findAll());
+    }
+
+    @CacheEvict(value = CATEGORIES, allEntries = true)
+    public Category saveCategory(Category category) {
+        return categoryRepository.save(category);
+    }
+
+    @CacheEvict(value = CATEGORIES, allEntries = true)
+    public void deleteCategory(Long id) {
+        categoryRepository.deleteById(id);
+    }
+
+    @Cacheable(REGIONS)
+    public VersionedList<Region> getRegions() {
+        return versioned(regionRepository.findAll());
+    }
+
+    @CacheEvict(value = REGIONS, allEntries = true)
+    public Region saveRegion(Region region) {
+        return regionRepository.save(region);
+    }
+
+    @CacheEvict(value = REGIONS, allEntries = true)
+    public void deleteRegion(Long id) {
+        regionRepository.deleteById(id);
+    }
+
+    @Cacheable(CAROUSELS)
+    public VersionedList<Carousel> getCarousels() {
+        return versioned(carouselRepository.findAll());
+    }
+
+    @CacheEvict(value = CAROUSELS, allEntries = true)
+    public Carousel saveCarousel(Carousel carousel) {
+        return carouselRepository.save(carousel);
+    }
+
+    @CacheEvict(value = CAROUSELS, allEntries = true)
+    public void deleteCarousel(Long id) {
+        carouselRepository.deleteById(id);
+    }
+
+    @CacheEvict(value = CAROUSELS, allEntries = true)
+    public void evictCarousels() {
+    }
+
+    // 当前时间处于投放时间段内的启用轮播图；每次从缓存列表中筛选，到点自动上线下线，无需清缓存
+    public VersionedList<Carousel> getActiveCarousels(VersionedList<Carousel> carousels, LocalDateTime now) {
+        List<Carousel> active = carousels.getItems().stream()
+                .filter(c -> Boolean.TRUE.equals(c.getIsActive()))
+                .filter(c -> c.getStartTime() == null || !c.getStartTime().isAfter(now))
+                .filter(c -> c.getEndTime() == null || c.getEndTime().isAfter(now))
+                .sorted(Comparator.comparing(Carousel::getSort).thenComparing(Carousel::getId))
+                .collect(Collectors.toList());
+        String ids = active.stream().map(c -> String.valueOf(c.getId())).collect(Collectors.joining(","));
+        return new VersionedList<>(active, carousels.getVersion() + "-" + Integer.toHexString(ids.hashCode()));
+    }
+
+    // 版本号取列表 JSON 的 SHA-256 前16位，内容不变则版本不变
+    private <T> VersionedList<T> versioned(List<T> items) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(items));
+            return new VersionedList<>(items, HexFormat.of().formatHex(digest, 0, 8));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
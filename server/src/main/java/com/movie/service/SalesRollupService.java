@@ -0,0 +1,114 @@
+package com.movie.service;
+
+import com.movie.entity.DailySalesRollup;
+import com.movie.repository.DailySalesRollupRepository;
+import com.movie.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+// 维护 daily_sales_rollup，并按日/周/月汇总销售额
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    public static final Set<String> GRANULARITIES = Set.of("day", "week", "month");
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+
+    @Autowired
+    public SalesRollupService(DailySalesRollupRepository rollupRepository, OrderRepository orderRepository) {
+        this.rollupRepository = rollupRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    // 订单支付成功时调用，与订单状态更新在同一事务中
+    @Transactional
+    public void record(LocalDateTime paidAt, Double amount) {
+        rollupRepository.addSale(paidAt.toLocalDate(), amount);
+    }
+
+    // 汇总表为空时（新建表或新库）从订单全量回填
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (rollupRepository.count() == 0) {
+            int days = rebuildAll();
+            if (days > 0) {
+                log.info("Backfilled daily sales rollup for {} days", days);
+            }
+        }
+    }
+
+    @Transactional
+    public int rebuildAll() {
+        Optional<LocalDateTime> firstPaidAt = orderRepository.findFirstPaidAt();
+        if (firstPaidAt.isEmpty()) {
+            return 0;
+        }
+        return rebuild(firstPaidAt.get().toLocalDate(), LocalDate.now());
+    }
+
+    // 按订单重新计算 [from, to] 内每天的汇总，返回有销售的天数
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        rollupRepository.deleteBetween(from, to);
+        return rollupRepository.rebuildBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    // 读取 [from, to] 内的日汇总，再按粒度合并；周以周一为起点，月以当月1日为起点
+    public List<Map<String, Object>> getSales(LocalDate from, LocalDate to, String granularity) {
+        Map<LocalDate, DailySalesRollup> buckets = new TreeMap<>();
+        for (DailySalesRollup day : rollupRepository.findBySaleDateBetweenOrderBySaleDate(from, to)) {
+            LocalDate key = bucketOf(day.getSaleDate(), granularity);
+            DailySalesRollup bucket = buckets.computeIfAbsent(key, k -> {
+                DailySalesRollup empty = new DailySalesRollup();
+                empty.setSaleDate(k);
+                return empty;
+            });
+            bucket.setOrderCount(bucket.getOrderCount() + day.getOrderCount());
+            bucket.setAmount(bucket.getAmount() + day.getAmount());
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (DailySalesRollup bucket : buckets.values()) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("date", "month".equals(granularity)
+                ? YearMonth.from(bucket.getSaleDate()).toString()
+                : bucket.getSaleDate().toString());
+            data.put("orderCount", bucket.getOrderCount());
+            data.put("amount", bucket.getAmount());
+            result.add(data);
+        }
+        return result;
+    }
+
+    // 未指定起始日期时：按日看30天，按周看12周，按月看12个月
+    public LocalDate defaultFrom(LocalDate to, String granularity) {
+        return switch (granularity) {
+            case "week" -> to.with(DayOfWeek.MONDAY).minusWeeks(11);
+            case "month" -> to.withDayOfMonth(1).minusMonths(11);
+            default -> to.minusDays(29);
+        };
+    }
+
+    private LocalDate bucketOf(LocalDate date, String granularity) {
+        return switch (granularity) {
+            case "week" -> date.with(DayOfWeek.MONDAY);
+            case "month" -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+}
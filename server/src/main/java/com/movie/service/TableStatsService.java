@@ -0,0 +1,50 @@
+package com.movie.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// 根据优化器的统计信息估算行数，供游标分页显示大致总数，避免 COUNT(*) 扫描整个索引
+@Service
+public class TableStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TableStatsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TableStatsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // table 和 filters 的列名由调用方写死，值为 null 的条件忽略；拿不到估算值时返回 null
+    public Long estimateRows(String table, Map<String, Object> filters) {
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT 1 FROM ").append(table);
+        List<Object> args = new ArrayList<>();
+        for (Map.Entry<String, Object> filter : filters.entrySet()) {
+            if (filter.getValue() != null) {
+                sql.append(args.isEmpty() ? " WHERE " : " AND ").append(filter.getKey()).append(" = ?");
+                args.add(filter.getValue());
+            }
+        }
+        try {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList(sql.toString(), args.toArray());
+            Object rows = plan.isEmpty() ? null : plan.get(0).get("rows");
+            if (rows instanceof Number number) {
+                return number.longValue();
+            }
+            // MariaDB 的 EXPLAIN 以字符串返回 rows
+            return rows != null ? Long.valueOf(rows.toString()) : null;
+        } catch (DataAccessException | NumberFormatException e) {
+            log.debug("Failed to estimate rows of {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- 定时清理任务按过期时间、按状态和创建时间查找；已存在时跳过
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_movies' AND INDEX_NAME = 'idx_user_movies_expired_at'),
+              'DO 0', 'CREATE INDEX idx_user_movies_expired_at ON user_movies (expired_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_status_created_at'),
+              'DO 0', 'CREATE INDEX idx_orders_status_created_at ON orders (status, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
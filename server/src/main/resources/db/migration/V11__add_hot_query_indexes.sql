@@ -0,0 +1,51 @@
+-- 订单：按用户+电影+状态查待支付订单，按用户/电影/时间分页，按时间统计
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_user_movie_status'),
+              'DO 0', 'CREATE INDEX idx_orders_user_movie_status ON orders (user_id, movie_id, status)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_user_created_at'),
+              'DO 0', 'CREATE INDEX idx_orders_user_created_at ON orders (user_id, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_movie_created_at'),
+              'DO 0', 'CREATE INDEX idx_orders_movie_created_at ON orders (movie_id, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND INDEX_NAME = 'idx_orders_created_at'),
+              'DO 0', 'CREATE INDEX idx_orders_created_at ON orders (created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 已购电影：按用户+电影判断是否在有效期内，按电影查有效购买
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_movies' AND INDEX_NAME = 'idx_user_movies_user_movie_expired_at'),
+              'DO 0', 'CREATE INDEX idx_user_movies_user_movie_expired_at ON user_movies (user_id, movie_id, expired_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_movies' AND INDEX_NAME = 'idx_user_movies_movie_expired_at'),
+              'DO 0', 'CREATE INDEX idx_user_movies_movie_expired_at ON user_movies (movie_id, expired_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 互动记录：后台按用户/电影筛选后按创建时间分页
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_interactions' AND INDEX_NAME = 'idx_movie_interactions_user_created_at'),
+              'DO 0', 'CREATE INDEX idx_movie_interactions_user_created_at ON movie_interactions (user_id, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_interactions' AND INDEX_NAME = 'idx_movie_interactions_movie_created_at'),
+              'DO 0', 'CREATE INDEX idx_movie_interactions_movie_created_at ON movie_interactions (movie_id, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_interactions' AND INDEX_NAME = 'idx_movie_interactions_created_at'),
+              'DO 0', 'CREATE INDEX idx_movie_interactions_created_at ON movie_interactions (created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 留言：用户查看自己的留言、后台按时间倒序列出
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'messages' AND INDEX_NAME = 'idx_messages_user_created_at'),
+              'DO 0', 'CREATE INDEX idx_messages_user_created_at ON messages (user_id, created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'messages' AND INDEX_NAME = 'idx_messages_created_at'),
+              'DO 0', 'CREATE INDEX idx_messages_created_at ON messages (created_at)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
@@ -0,0 +1,6 @@
+-- 订单、互动记录按 (created_at, id) 游标分页，创建时间为空的行无法定位，先回填再加非空约束
+UPDATE orders SET created_at = COALESCE(paid_at, NOW(6)) WHERE created_at IS NULL;
+ALTER TABLE orders MODIFY created_at DATETIME(6) NOT NULL;
+
+UPDATE movie_interactions SET created_at = COALESCE(updated_at, NOW(6)) WHERE created_at IS NULL;
+ALTER TABLE movie_interactions MODIFY created_at DATETIME(6) NOT NULL;
@@ -0,0 +1,111 @@
+-- 初始表结构，与改为迁移脚本管理之前由实体生成的结构一致；之后的变更见 V2 起的脚本
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    gender VARCHAR(255) NULL,
+    age INT NULL,
+    profession VARCHAR(255) NULL,
+    phone VARCHAR(255) NULL,
+    admin BIT(1) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_users_username (username)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE regions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE movies (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    cover_base64 LONGTEXT NOT NULL,
+    categories VARCHAR(255) NULL,
+    region_id BIGINT NULL,
+    year INT NOT NULL,
+    duration INT NOT NULL,
+    rating DOUBLE NOT NULL,
+    is_free BIT(1) NOT NULL,
+    price DOUBLE NULL,
+    actors TEXT NULL,
+    trailer_url TEXT NULL,
+    play_count INT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE carousels (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    image_base64 LONGTEXT NOT NULL,
+    link VARCHAR(255) NULL,
+    sort INT NOT NULL,
+    start_time DATETIME(6) NULL,
+    end_time DATETIME(6) NULL,
+    is_active BIT(1) NOT NULL,
+    created_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 收藏夹最初只关联一部电影，V2 改为 movie_ids
+CREATE TABLE collections (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    movie_id BIGINT NOT NULL,
+    created_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE messages (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    content VARCHAR(1000) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE movie_interactions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    liked BIT(1) NULL,
+    rating INT NULL,
+    comment VARCHAR(1000) NULL,
+    play_count INT NULL,
+    created_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_movie_interactions_user_movie (user_id, movie_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    amount DOUBLE NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NULL,
+    paid_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE user_movies (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    created_at DATETIME(6) NULL,
+    expired_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,23 @@
+-- 封面和轮播图改为存储在文件中，数据库只保存内容哈希和类型
+-- 从 ddl-auto 时期升级的库可能已有这些列和索引，缺失时才添加（MySQL 8 不支持 ADD COLUMN IF NOT EXISTS）
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'cover_hash'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN cover_hash VARCHAR(64) NULL');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'cover_content_type'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN cover_content_type VARCHAR(100) NULL');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+ALTER TABLE movies MODIFY COLUMN cover_base64 LONGTEXT NULL;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'carousels' AND COLUMN_NAME = 'image_hash'),
+              'DO 0', 'ALTER TABLE carousels ADD COLUMN image_hash VARCHAR(64) NULL');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'carousels' AND COLUMN_NAME = 'image_content_type'),
+              'DO 0', 'ALTER TABLE carousels ADD COLUMN image_content_type VARCHAR(100) NULL');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+ALTER TABLE carousels MODIFY COLUMN image_base64 LONGTEXT NULL;
+
+-- 旧的 base64 数据由 MediaMigrationRunner 在启动时转存并清空
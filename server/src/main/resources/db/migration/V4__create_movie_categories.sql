@@ -0,0 +1,26 @@
+-- 电影分类关联表，替代 movies.categories 中逗号分隔的分类ID
+CREATE TABLE IF NOT EXISTS movie_categories (
+    movie_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, category_id),
+    KEY idx_movie_categories_category (category_id, movie_id),
+    CONSTRAINT fk_movie_categories_movie FOREIGN KEY (movie_id) REFERENCES movies (id) ON DELETE CASCADE
+);
+
+-- ddl-auto 建的表可能缺少这个索引
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_categories' AND INDEX_NAME = 'idx_movie_categories_category'),
+              'DO 0', 'CREATE INDEX idx_movie_categories_category ON movie_categories (category_id, movie_id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 从逗号分隔的字段回填关联数据，INSERT IGNORE 可重复执行
+INSERT IGNORE INTO movie_categories (movie_id, category_id)
+SELECT m.id, CAST(TRIM(c.category_id) AS UNSIGNED)
+FROM movies m
+JOIN JSON_TABLE(
+    CONCAT('["', REPLACE(m.categories, ',', '","'), '"]'),
+    '$[*]' COLUMNS (category_id VARCHAR(20) PATH '$')
+) c
+WHERE m.categories IS NOT NULL
+  AND m.categories <> ''
+  AND TRIM(c.category_id) REGEXP '^[0-9]+$';
@@ -0,0 +1,31 @@
+-- 收藏夹内容改为独立的 collection_items 表，替代 collections.movie_ids 逗号分隔字段
+CREATE TABLE IF NOT EXISTS collection_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    collection_id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    added_at DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_collection_items_collection_movie (collection_id, movie_id),
+    KEY idx_collection_items_movie (movie_id, collection_id),
+    CONSTRAINT fk_collection_items_collection FOREIGN KEY (collection_id) REFERENCES collections (id) ON DELETE CASCADE
+);
+
+-- ddl-auto 建的表可能缺少这个索引
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'collection_items' AND INDEX_NAME = 'idx_collection_items_movie'),
+              'DO 0', 'CREATE INDEX idx_collection_items_movie ON collection_items (movie_id, collection_id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 从逗号分隔的字段回填，保留原有顺序；ddl-auto 时期已写入的收藏由唯一索引忽略
+INSERT IGNORE INTO collection_items (collection_id, movie_id, added_at)
+SELECT c.id, CAST(TRIM(i.movie_id) AS UNSIGNED), DATE_ADD(COALESCE(c.created_at, NOW()), INTERVAL i.position SECOND)
+FROM collections c
+JOIN JSON_TABLE(
+    CONCAT('["', REPLACE(c.movie_ids, ',', '","'), '"]'),
+    '$[*]' COLUMNS (position FOR ORDINALITY, movie_id VARCHAR(20) PATH '$')
+) i
+WHERE c.movie_ids IS NOT NULL
+  AND c.movie_ids <> ''
+  AND TRIM(i.movie_id) REGEXP '^[0-9]+$';
+
+ALTER TABLE collections DROP COLUMN movie_ids;
@@ -0,0 +1,15 @@
+-- 按支付日期预聚合的销售额，支付订单时增量更新
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    sale_date DATE NOT NULL,
+    order_count BIGINT NOT NULL,
+    amount DOUBLE NOT NULL,
+    PRIMARY KEY (sale_date)
+);
+
+-- 从已支付订单回填
+INSERT INTO daily_sales_rollup (sale_date, order_count, amount)
+SELECT DATE(paid_at), COUNT(*), SUM(amount)
+FROM orders
+WHERE status = 'PAID' AND paid_at IS NOT NULL
+GROUP BY DATE(paid_at)
+ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), amount = VALUES(amount);
@@ -0,0 +1,25 @@
+-- 电影点赞数和点赞时间，用于点赞排行
+-- ddl-auto 可能已按实体加过这两列（可为空），缺失时才添加，再统一改为非空
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'like_count'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN like_count BIGINT NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+UPDATE movies SET like_count = 0 WHERE like_count IS NULL;
+ALTER TABLE movies MODIFY COLUMN like_count BIGINT NOT NULL DEFAULT 0;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_interactions' AND COLUMN_NAME = 'liked_at'),
+              'DO 0', 'ALTER TABLE movie_interactions ADD COLUMN liked_at DATETIME(6) NULL');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movie_interactions' AND INDEX_NAME = 'idx_movie_interactions_liked_at'),
+              'DO 0', 'CREATE INDEX idx_movie_interactions_liked_at ON movie_interactions (liked_at, movie_id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- 已有点赞没有记录时间，以最后更新时间代替
+UPDATE movie_interactions SET liked_at = COALESCE(updated_at, created_at, NOW()) WHERE liked = TRUE AND liked_at IS NULL;
+
+-- 按互动记录重新统计，ddl-auto 时期维护过的计数也会被校正
+UPDATE movies m
+LEFT JOIN (SELECT movie_id, COUNT(*) AS likes FROM movie_interactions WHERE liked = TRUE GROUP BY movie_id) l
+  ON l.movie_id = m.id
+SET m.like_count = COALESCE(l.likes, 0);
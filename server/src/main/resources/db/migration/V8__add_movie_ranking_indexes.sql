@@ -0,0 +1,13 @@
+-- 榜单排序用的索引，带上 id 作为同分时的次序；已存在时跳过
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_rating'),
+              'DO 0', 'CREATE INDEX idx_movies_rating ON movies (rating, id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_play_count'),
+              'DO 0', 'CREATE INDEX idx_movies_play_count ON movies (play_count, id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_region_rating'),
+              'DO 0', 'CREATE INDEX idx_movies_region_rating ON movies (region_id, rating, id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
@@ -0,0 +1,46 @@
+-- 用户评分的累计和、人数以及贝叶斯加权评分
+-- 同 V7，列可能已由 ddl-auto 加上
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'rating_sum'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'rating_count'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN rating_count BIGINT NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND COLUMN_NAME = 'score'),
+              'DO 0', 'ALTER TABLE movies ADD COLUMN score DOUBLE NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+ALTER TABLE movies
+    MODIFY COLUMN rating_sum BIGINT NOT NULL DEFAULT 0,
+    MODIFY COLUMN rating_count BIGINT NOT NULL DEFAULT 0,
+    MODIFY COLUMN score DOUBLE NOT NULL DEFAULT 0;
+
+-- 从已有的互动评分重新统计
+UPDATE movies m
+LEFT JOIN (SELECT movie_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+           FROM movie_interactions WHERE rating IS NOT NULL GROUP BY movie_id) r
+  ON r.movie_id = m.id
+SET m.rating_sum = COALESCE(r.rating_sum, 0), m.rating_count = COALESCE(r.rating_count, 0);
+
+-- 先验权重与 rating.prior-weight 默认值一致；用户评分为5分制，乘2换算为10分制
+UPDATE movies SET score = (COALESCE(rating, 0) * 10 + rating_sum * 2.0) / (10 + rating_count);
+
+-- 评分榜改为按加权评分排序
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_rating'),
+              'DROP INDEX idx_movies_rating ON movies', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_region_rating'),
+              'DROP INDEX idx_movies_region_rating ON movies', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_score'),
+              'DO 0', 'CREATE INDEX idx_movies_score ON movies (score, id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movies' AND INDEX_NAME = 'idx_movies_region_score'),
+              'DO 0', 'CREATE INDEX idx_movies_region_score ON movies (region_id, score, id)');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
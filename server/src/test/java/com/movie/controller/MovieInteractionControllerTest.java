@@ -0,0 +1,101 @@
+package com.movie.controller;
+
+import com.movie.entity.Movie;
+import com.movie.entity.MovieInteraction;
+import com.movie.repository.MovieInteractionRepository;
+import com.movie.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+// 修改互动记录的校验：请求不合法时不能留下空记录，也不能改动电影的评分统计
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:interaction;MODE=MySQL;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "media.storage-path=${java.io.tmpdir}/movie-test-media"
+})
+@AutoConfigureMockMvc
+class MovieInteractionControllerTest {
+
+    private static final long USER_ID = 7L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private MovieInteractionRepository movieInteractionRepository;
+
+    private Long movieId;
+
+    @BeforeEach
+    void seed() {
+        movieInteractionRepository.deleteAll();
+        movieRepository.deleteAll();
+        Movie movie = new Movie();
+        movie.setTitle("movie");
+        movie.setYear(2020);
+        movie.setDuration(90);
+        movie.setRating(7.0);
+        movie.setIsFree(true);
+        movieId = movieRepository.save(movie).getId();
+    }
+
+    @Test
+    void blankCommentDoesNotCreateInteractionOrChangeRating() throws Exception {
+        mockMvc.perform(put("/movie-interactions/user/{userId}/movie/{movieId}", USER_ID, movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\": 4, \"comment\": \"  \"}"))
+                .andExpect(jsonPath("$.code").value(400));
+
+        assertThat(movieInteractionRepository.findByUserIdAndMovieId(USER_ID, movieId)).isEmpty();
+        Movie movie = movieRepository.findById(movieId).orElseThrow();
+        assertThat(movie.getRatingSum()).isZero();
+        assertThat(movie.getRatingCount()).isZero();
+    }
+
+    @Test
+    void blankCommentKeepsExistingRating() throws Exception {
+        mockMvc.perform(put("/movie-interactions/user/{userId}/movie/{movieId}", USER_ID, movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\": 2}"))
+                .andExpect(jsonPath("$.code").value(200));
+
+        mockMvc.perform(put("/movie-interactions/user/{userId}/movie/{movieId}", USER_ID, movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\": 4, \"comment\": \"  \"}"))
+                .andExpect(jsonPath("$.code").value(400));
+
+        MovieInteraction interaction = movieInteractionRepository.findByUserIdAndMovieId(USER_ID, movieId).orElseThrow();
+        assertThat(interaction.getRating()).isEqualTo(2);
+        Movie movie = movieRepository.findById(movieId).orElseThrow();
+        assertThat(movie.getRatingSum()).isEqualTo(2);
+        assertThat(movie.getRatingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ratingOutOfRangeDoesNotCreateInteraction() throws Exception {
+        mockMvc.perform(put("/movie-interactions/user/{userId}/movie/{movieId}", USER_ID, movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\": 6}"))
+                .andExpect(jsonPath("$.code").value(400));
+
+        assertThat(movieInteractionRepository.findByUserIdAndMovieId(USER_ID, movieId)).isEmpty();
+    }
+}
@@ -0,0 +1,308 @@
+package com.movie.repository;
+
+import com.movie.entity.Message;
+import com.movie.entity.Movie;
+import com.movie.entity.MovieInteraction;
+import com.movie.entity.Order;
+import com.movie.entity.UserMovie;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 在 H2 上执行热点查询，对实际发出的 SQL 做 EXPLAIN，走全表扫描（H2 计划中的 tableScan）时失败。
+// 表结构由实体上的 @Index 生成，与 db/migration 中的索引保持一致
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plan;MODE=MySQL;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+    // 记录测试中执行的 SQL 和参数，参数按 setXxx 调用原样重放到 EXPLAIN 语句上
+    private static final List<QueryInfo> QUERIES = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(net.ttddyy.dsproxy.ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    }
+
+                                    @Override
+                                    public void afterQuery(net.ttddyy.dsproxy.ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                        QUERIES.addAll(queryInfoList);
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserMovieRepository userMovieRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MovieInteractionRepository movieInteractionRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CollectionItemRepository collectionItemRepository;
+
+    // 空表上优化器的代价估算没有意义，每张表先写入一批数据
+    @BeforeEach
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> movieIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("movie" + i);
+            movie.setYear(2000 + i);
+            movie.setDuration(90);
+            movie.setRating(7.0);
+            movie.setRegion((long) (i % 3));
+            movie.setIsFree(i % 2 == 0);
+            movie.setPrice(i % 2 == 0 ? null : 9.9);
+            movie.setPlayCount(i);
+            movieIds.add(entityManager.persist(movie).getId());
+        }
+        for (long user = 1; user <= 50; user++) {
+            for (int i = 0; i < 4; i++) {
+                Long movieId = movieIds.get((int) ((user + i) % movieIds.size()));
+
+                Order order = new Order();
+                order.setUserId(user);
+                order.setMovieId(movieId);
+                order.setAmount(9.9);
+                order.setStatus(i == 0 ? "PENDING" : "PAID");
+                entityManager.persist(order);
+
+                UserMovie userMovie = new UserMovie();
+                userMovie.setUserId(user);
+                userMovie.setMovieId(movieId);
+                userMovie.setExpiredAt(now.plusDays(i - 1));
+                entityManager.persist(userMovie);
+
+                Message message = new Message();
+                message.setUserId(user);
+                message.setContent("message" + i);
+                message.setType("SUGGESTION");
+                entityManager.persist(message);
+
+                MovieInteraction interaction = new MovieInteraction();
+                interaction.setUserId(user);
+                interaction.setMovieId(movieId);
+                interaction.setLiked(i % 2 == 0);
+                interaction.setLikedAt(i % 2 == 0 ? now.minusDays(i) : null);
+                interaction.setRating(i + 1);
+                entityManager.persist(interaction);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        analyze();
+        QUERIES.clear();
+    }
+
+    @Test
+    void findPendingOrderUsesIndex() {
+        orderRepository.findByUserIdAndMovieIdAndStatus(1L, 2L, "PENDING");
+        assertNoTableScan("orders");
+    }
+
+    @Test
+    void findOrdersCreatedAfterUsesIndex() {
+        orderRepository.findByCreatedAtAfter(LocalDateTime.now().minusMinutes(5));
+        assertNoTableScan("orders");
+    }
+
+    @Test
+    void findStalePendingOrdersUsesIndex() {
+        orderRepository.findStalePendingIds(LocalDateTime.now().minusMinutes(30), PageRequest.of(0, 100));
+        assertNoTableScan("orders");
+    }
+
+    @Test
+    void orderPageByUserUsesIndex() {
+        Specification<Order> byUser = (root, query, cb) -> cb.equal(root.get("userId"), 3L);
+        orderRepository.findBy(byUser, q -> q.sortBy(newestFirst()).limit(21).all());
+        assertNoTableScan("orders");
+    }
+
+    @Test
+    void orderPageByMovieUsesIndex() {
+        Specification<Order> byMovie = (root, query, cb) -> cb.equal(root.get("movieId"), 3L);
+        orderRepository.findBy(byMovie, q -> q.sortBy(newestFirst()).limit(21).all());
+        assertNoTableScan("orders");
+    }
+
+    @Test
+    void findActiveEntitlementUsesIndex() {
+        userMovieRepository.findFirstByUserIdAndMovieIdAndExpiredAtGreaterThanOrderByExpiredAtDesc(1L, 2L, LocalDateTime.now());
+        assertNoTableScan("user_movies");
+    }
+
+    @Test
+    void findExpiredEntitlementsUsesIndex() {
+        userMovieRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, 100));
+        assertNoTableScan("user_movies");
+    }
+
+    @Test
+    void findUserMessagesUsesIndex() {
+        messageRepository.findByUserIdOrderByCreatedAtDesc(1L);
+        assertNoTableScan("messages");
+    }
+
+    @Test
+    void findInteractionUsesIndex() {
+        movieInteractionRepository.findByUserIdAndMovieId(1L, 2L);
+        assertNoTableScan("movie_interactions");
+    }
+
+    @Test
+    void interactionPageByMovieUsesIndex() {
+        Specification<MovieInteraction> byMovie = (root, query, cb) -> cb.equal(root.get("movieId"), 3L);
+        movieInteractionRepository.findBy(byMovie, q -> q.sortBy(newestFirst()).limit(21).all());
+        assertNoTableScan("movie_interactions");
+    }
+
+    @Test
+    void interactionPageByUserUsesIndex() {
+        Specification<MovieInteraction> byUser = (root, query, cb) -> cb.equal(root.get("userId"), 3L);
+        movieInteractionRepository.findBy(byUser, q -> q.sortBy(newestFirst()).limit(21).all());
+        assertNoTableScan("movie_interactions");
+    }
+
+    @Test
+    void findTopLikedSinceUsesIndex() {
+        movieInteractionRepository.findTopLikedSince(LocalDateTime.now().minusDays(1), PageRequest.of(0, 10));
+        assertNoTableScan("movie_interactions");
+    }
+
+    @Test
+    void regionRankingUsesIndex() {
+        movieRepository.findSummariesByRegion(1L, PageRequest.of(0, 10,
+                Sort.by(Sort.Order.desc("score"), Sort.Order.desc("id"))));
+        assertNoTableScan("movies");
+    }
+
+    @Test
+    void collectedMovieLookupUsesIndex() {
+        collectionItemRepository.findCollectedMovieIds(1L, Set.of(1L, 2L));
+        assertNoTableScan("collection_items");
+    }
+
+    private static Sort newestFirst() {
+        return Sort.by("createdAt").descending().and(Sort.by("id").descending());
+    }
+
+    // 对最近执行的、读取了 table 的 SELECT 逐条 EXPLAIN
+    private void assertNoTableScan(String table) {
+        String from = table.toLowerCase(Locale.ROOT);
+        List<QueryInfo> selects = QUERIES.stream()
+                .filter(q -> q.getQuery().toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(q -> q.getQuery().toLowerCase(Locale.ROOT).matches("(?s).*\\b(from|join) " + from + "\\b.*"))
+                .toList();
+        assertThat(selects).as("no SELECT on %s was executed", table).isNotEmpty();
+        for (QueryInfo query : selects) {
+            String plan = explain(query);
+            assertThat(plan)
+                    .as("full scan of %s in%n%s", table, plan)
+                    .doesNotContainIgnoringCase(table + ".tableScan");
+        }
+    }
+
+    // 使用测试事务中的连接，能看到 seed 写入但未提交的数据
+    private String explain(QueryInfo query) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getQuery())) {
+            if (!query.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("EXPLAIN failed for " + query.getQuery(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // 让 H2 按实际行数计算代价
+    private void analyze() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}